@@ -112,6 +112,19 @@ public class DateTimeGranularity implements Granularity<OffsetDateTime> {
         return trimToGranularity(generatedDate);
     }
 
+    @Override
+    public long getStepsBetween(OffsetDateTime inclusiveMin, OffsetDateTime exclusiveMax) {
+        try {
+            long steps = workingDay
+                // estimated, as there are five working days in every seven
+                ? ChronoUnit.DAYS.between(inclusiveMin, exclusiveMax) * 5 / 7
+                : chronoUnit.between(inclusiveMin, exclusiveMax);
+            return Math.max(0, steps);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
     private long getMilli(OffsetDateTime date) {
         return date.toInstant().toEpochMilli();
     }
@@ -16,9 +16,19 @@
 
 package com.scottlogic.datahelix.generator.common.profile;
 
+import java.lang.ref.WeakReference;
+import java.util.Map;
 import java.util.Objects;
+import java.util.WeakHashMap;
 
 public class Field {
+    /**
+     * The first of each set of equal fields, which holds the ordinal they share. Entries only hold the field weakly,
+     * and every equal field refers to its canonical field, so an entry is dropped once none of its fields are in use.
+     */
+    private static final Map<Field, WeakReference<Field>> CANONICAL_FIELDS = new WeakHashMap<>();
+    private static int nextOrdinal;
+
     private final String name;
     private final SpecificFieldType type;
     private final boolean unique;
@@ -26,6 +36,10 @@ public class Field {
     private final boolean internal;
     private final boolean nullable;
     private final String generator;
+    private final int hashCode;
+    // keeps the canonical field, and so its entry, alive for as long as this field is
+    private final Field canonical;
+    private final int ordinal;
 
     public Field(String name, SpecificFieldType type, boolean unique, String formatting, boolean internal, boolean nullable, String generator) {
         this.name = name;
@@ -35,6 +49,20 @@ public class Field {
         this.internal = internal;
         this.nullable = nullable;
         this.generator = generator;
+        this.hashCode = Objects.hash(name, unique, formatting, type, nullable, generator);
+
+        synchronized (CANONICAL_FIELDS) {
+            WeakReference<Field> existing = CANONICAL_FIELDS.get(this);
+            Field equalField = existing == null ? null : existing.get();
+            if (equalField == null) {
+                this.canonical = this;
+                this.ordinal = nextOrdinal++;
+                CANONICAL_FIELDS.put(this, new WeakReference<>(this));
+            } else {
+                this.canonical = equalField;
+                this.ordinal = equalField.ordinal;
+            }
+        }
     }
 
     public FieldType getType() {
@@ -86,7 +114,15 @@ public class Field {
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, unique, formatting, type, nullable, generator);
+        return hashCode;
+    }
+
+    /**
+     * @return a number identifying this field, shared by every equal field, so that fields can be looked up
+     * without hashing or comparing all of their properties
+     */
+    public int getOrdinal() {
+        return ordinal;
     }
 
     public String getName()
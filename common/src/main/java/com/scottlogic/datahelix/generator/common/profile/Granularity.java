@@ -38,4 +38,10 @@ public interface Granularity<T> {
     default T getPrevious(T value) { return getPrevious(value, 1);}
 
     T getRandom(T inclusiveMin, T exclusiveMax, RandomNumberGenerator randomNumberGenerator);
+
+    /**
+     * @return the number of steps of this granularity from one value to the other, which may be an estimate and is
+     * limited to Long.MAX_VALUE
+     */
+    long getStepsBetween(T inclusiveMin, T exclusiveMax);
 }
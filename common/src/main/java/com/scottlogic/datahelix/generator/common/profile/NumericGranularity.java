@@ -88,6 +88,15 @@ public class NumericGranularity implements Granularity<BigDecimal> {
         return trimToGranularity(value);
     }
 
+    @Override
+    public long getStepsBetween(BigDecimal inclusiveMin, BigDecimal exclusiveMax) {
+        BigDecimal steps = exclusiveMax.subtract(inclusiveMin)
+            .scaleByPowerOfTen(decimalPlaces)
+            .setScale(0, RoundingMode.CEILING);
+        return steps.compareTo(MAX_STEPS) >= 0 ? Long.MAX_VALUE : Math.max(0, steps.longValueExact());
+    }
+    private static final BigDecimal MAX_STEPS = BigDecimal.valueOf(Long.MAX_VALUE);
+
     @Override
     public BigDecimal getPrevious(BigDecimal value, int amount) {
         if (isCorrectScale(value)){
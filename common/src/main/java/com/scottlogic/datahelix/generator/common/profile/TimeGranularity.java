@@ -107,6 +107,11 @@ public class TimeGranularity implements Granularity<LocalTime> {
         return min.plus((long) b, granularity);
     }
 
+    @Override
+    public long getStepsBetween(LocalTime inclusiveMin, LocalTime exclusiveMax) {
+        return Math.max(0, inclusiveMin.until(exclusiveMax, granularity));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
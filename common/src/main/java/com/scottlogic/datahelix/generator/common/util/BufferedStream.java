@@ -0,0 +1,298 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Evaluates streams on an executor, handing their elements to the consuming thread through a bounded buffer of batches.
+ * <p>
+ * The producing side never blocks a thread of the executor: it fills the buffer until it is full and then returns,
+ * and is rescheduled each time the consumer takes a batch. A fixed size executor can therefore serve more buffered
+ * streams than it has threads, and a consumer that stops reading simply stops the producers from being rescheduled.
+ */
+public final class BufferedStream<T> {
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final int DEFAULT_BUFFERED_BATCHES = 16;
+
+    private final Executor executor;
+    private final int batchSize;
+    private final BlockingQueue<Batch<T>> buffer;
+    private final List<Producer> producers;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    private BufferedStream(List<Supplier<Stream<T>>> sources, Executor executor, int batchSize, int bufferedBatches) {
+        if (batchSize < 1 || bufferedBatches < 1) {
+            throw new IllegalArgumentException("Buffered streams require a positive batch size and buffer size");
+        }
+
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.buffer = new ArrayBlockingQueue<>(bufferedBatches);
+        this.producers = sources.stream().map(Producer::new).collect(Collectors.toList());
+    }
+
+    public static <T> Stream<T> bufferAsync(Supplier<Stream<T>> source, Executor executor) {
+        return bufferAsync(source, executor, DEFAULT_BATCH_SIZE, DEFAULT_BUFFERED_BATCHES);
+    }
+
+    /**
+     * Start evaluating the given stream on the executor, returning a stream over its elements in their original order.
+     * Any exception thrown while producing the elements is rethrown on the consuming thread.
+     *
+     * @param source          Supplier of the stream to evaluate, invoked once on the executor
+     * @param executor        The executor to produce elements on
+     * @param batchSize       The number of elements handed over to the consumer at a time
+     * @param bufferedBatches The number of batches that may be produced ahead of the consumer
+     * @return A stream over the elements of the source, closing it will stop the producer
+     */
+    public static <T> Stream<T> bufferAsync(Supplier<Stream<T>> source, Executor executor, int batchSize, int bufferedBatches) {
+        return new BufferedStream<>(Collections.singletonList(source), executor, batchSize, bufferedBatches).start();
+    }
+
+    /**
+     * Start evaluating all of the given streams on the executor, returning a stream over their elements in whichever
+     * order they are produced. Elements from the same source keep their relative order, in batches of the given size.
+     *
+     * @return A stream over the elements of all the sources, closing it will stop the producers
+     */
+    public static <T> Stream<T> mergeAsync(List<Supplier<Stream<T>>> sources, Executor executor, int batchSize, int bufferedBatches) {
+        if (sources.isEmpty()) {
+            return Stream.empty();
+        }
+
+        return new BufferedStream<>(sources, executor, batchSize, bufferedBatches).start();
+    }
+
+    /**
+     * Concatenate the given streams in order, evaluating up to the given number of them ahead of the consumer on the
+     * executor, so that sources which are expensive to evaluate are produced in parallel but consumed in order.
+     *
+     * @return A stream over the elements of all the sources in order, closing it will stop the producers
+     */
+    public static <T> Stream<T> concatAsync(Iterator<Supplier<Stream<T>>> sources, Executor executor, int sourcesInProgress) {
+        Deque<Stream<T>> inProgress = new ArrayDeque<>();
+        Iterator<T> concatenated = new Iterator<T>() {
+            private Iterator<T> current;
+
+            @Override
+            public boolean hasNext() {
+                while (true) {
+                    startSources();
+                    if (inProgress.isEmpty()) {
+                        return false;
+                    }
+                    if (current == null) {
+                        current = inProgress.peekFirst().iterator();
+                    }
+                    if (current.hasNext()) {
+                        return true;
+                    }
+
+                    inProgress.removeFirst().close();
+                    current = null;
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            private void startSources() {
+                while (inProgress.size() < sourcesInProgress && sources.hasNext()) {
+                    inProgress.addLast(bufferAsync(sources.next(), executor));
+                }
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(concatenated, Spliterator.ORDERED), false)
+            .onClose(() -> inProgress.forEach(Stream::close));
+    }
+
+    /**
+     * Create a fixed size pool of daemon threads, so that abandoned producers never keep the JVM alive.
+     */
+    public static ExecutorService newDaemonThreadPool(int threads, String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private Stream<T> start() {
+        producers.forEach(Producer::schedule);
+
+        return StreamSupport.stream(new ConsumingSpliterator(), false)
+            .onClose(() -> cancelled.set(true));
+    }
+
+    private Batch<T> take() {
+        try {
+            Batch<T> batch = buffer.take();
+            producers.forEach(Producer::schedule);
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for buffered data", e);
+        }
+    }
+
+    private class Producer implements Runnable {
+        private final Supplier<Stream<T>> source;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Stream<T> sourceStream;
+        private Spliterator<T> sourceSpliterator;
+        private Batch<T> pending;
+        private volatile boolean completed;
+
+        Producer(Supplier<Stream<T>> source) {
+            this.source = source;
+        }
+
+        void schedule() {
+            if (!completed && !cancelled.get() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                produceUntilBufferIsFull();
+            } finally {
+                scheduled.set(false);
+            }
+
+            if (buffer.remainingCapacity() > 0) {
+                schedule();
+            }
+        }
+
+        private void produceUntilBufferIsFull() {
+            while (!completed) {
+                if (pending == null) {
+                    pending = cancelled.get()
+                        ? new Batch<>(Collections.emptyList(), true, null)
+                        : nextBatch();
+                }
+
+                if (!buffer.offer(pending)) {
+                    return;
+                }
+
+                completed = pending.last;
+                pending = null;
+            }
+
+            if (sourceStream != null) {
+                sourceStream.close();
+            }
+        }
+
+        private Batch<T> nextBatch() {
+            List<T> items = new ArrayList<>(batchSize);
+            try {
+                if (sourceSpliterator == null) {
+                    sourceStream = source.get();
+                    sourceSpliterator = sourceStream.spliterator();
+                }
+
+                boolean hasMore;
+                do {
+                    hasMore = sourceSpliterator.tryAdvance(items::add);
+                } while (hasMore && items.size() < batchSize);
+
+                return new Batch<>(items, !hasMore, null);
+            } catch (Throwable e) {
+                return new Batch<>(items, true, e);
+            }
+        }
+    }
+
+    private class ConsumingSpliterator extends Spliterators.AbstractSpliterator<T> {
+        private Iterator<T> currentBatch = Collections.emptyIterator();
+        private int remainingProducers = producers.size();
+        private Throwable error;
+
+        ConsumingSpliterator() {
+            super(Long.MAX_VALUE, ORDERED);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (!currentBatch.hasNext()) {
+                if (error != null) {
+                    rethrow(error);
+                }
+                if (remainingProducers == 0) {
+                    return false;
+                }
+
+                Batch<T> batch = take();
+                if (batch.last) {
+                    remainingProducers--;
+                }
+                error = batch.error;
+                currentBatch = batch.items.iterator();
+            }
+
+            action.accept(currentBatch.next());
+            return true;
+        }
+    }
+
+    private static void rethrow(Throwable error) {
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new IllegalStateException(error);
+    }
+
+    private static class Batch<T> {
+        private final List<T> items;
+        private final boolean last;
+        private final Throwable error;
+
+        Batch(List<T> items, boolean last, Throwable error) {
+            this.items = items;
+            this.last = last;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+/**
+ * Interfaces for publishing data to subscribers that control how much they receive, mirroring
+ * {@code java.util.concurrent.Flow} (which is not available before Java 9) so they can be swapped for it directly.
+ * <p>
+ * A subscriber receives {@link Subscriber#onNext} calls only for the items it has requested through its
+ * {@link Subscription}, followed by exactly one of {@link Subscriber#onComplete} or {@link Subscriber#onError}
+ * unless it cancels the subscription first. Calls to a subscriber are never made concurrently.
+ */
+public final class DataFlow {
+    private DataFlow() {
+    }
+
+    @FunctionalInterface
+    public interface Publisher<T> {
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+        void onNext(T item);
+        void onError(Throwable throwable);
+        void onComplete();
+    }
+
+    public interface Subscription {
+        /**
+         * Adds n to the number of items the subscriber is ready to receive. Requests for fewer than 1 item are
+         * reported to the subscriber through {@link Subscriber#onError}.
+         */
+        void request(long n);
+
+        /**
+         * Stops sending items to the subscriber, and stops producing them as soon as possible.
+         */
+        void cancel();
+    }
+}
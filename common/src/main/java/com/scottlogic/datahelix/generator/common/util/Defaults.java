@@ -26,6 +26,8 @@ import java.time.temporal.ChronoUnit;
 
 public class Defaults {
     public static final long DEFAULT_MAX_ROWS = 1000;
+    public static final int DEFAULT_THREADS = 1;
+    public static final int DEFAULT_OUTPUT_THREADS = 0;
 
     public static final BigDecimal NUMERIC_MAX = new BigDecimal("1e20");
     public static final BigDecimal NUMERIC_MIN = new BigDecimal("-1e20");
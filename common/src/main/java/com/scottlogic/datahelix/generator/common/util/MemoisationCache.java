@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A thread safe, bounded cache of the results of a function, keyed on its argument. Results are computed outside of
+ * the cache's lock so that threads computing different results do not hold each other up, and the least recently used
+ * results are evicted once more than the given number are held. A cache with a maximum size of zero holds nothing.
+ * <p>
+ * Keys must have equals and hashCode methods that only consider two keys equal when the function gives the same result
+ * for both.
+ */
+public final class MemoisationCache<K, V> {
+    private final int maxResults;
+    private final Map<K, V> results = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public MemoisationCache(int maxResults) {
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Memoisation caches require a maximum size of zero or more");
+        }
+
+        this.maxResults = maxResults;
+    }
+
+    public V get(K key, Function<? super K, ? extends V> function) {
+        if (maxResults == 0) {
+            misses.incrementAndGet();
+            return function.apply(key);
+        }
+
+        V cached = getResult(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        return putIfAbsent(key, function.apply(key));
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return The proportion of lookups that were answered from the cache, or zero if there have been none
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    private synchronized V getResult(K key) {
+        return results.get(key);
+    }
+
+    private synchronized V putIfAbsent(K key, V result) {
+        // another thread may have computed the same result meanwhile, its instance is kept so that results stay shared
+        V existing = results.putIfAbsent(key, result);
+        if (results.size() > maxResults) {
+            results.remove(results.keySet().iterator().next());
+        }
+        return existing != null ? existing : result;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+            "%d held, %d hits, %d misses (%.1f%% hit rate)",
+            results.size(), hits.get(), misses.get(), getHitRate() * 100);
+    }
+}
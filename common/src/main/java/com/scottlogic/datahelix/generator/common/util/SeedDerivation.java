@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+/**
+ * Derives seeds for independent random number streams from a master seed.
+ * <p>
+ * Each derived seed depends only on its parent seed and its index, so a block, partition or field always gets the same
+ * stream for a given master seed, however the work is divided between threads, shards or runs. Derived seeds can be
+ * derived from again to build a hierarchy of streams.
+ */
+public final class SeedDerivation {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private SeedDerivation() {
+    }
+
+    public static long derive(long parentSeed, long index) {
+        return mix(parentSeed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    public static long derive(long parentSeed, String name) {
+        return derive(parentSeed, name.hashCode());
+    }
+
+    // the finaliser of the SplitMix64 generator, so that adjacent seeds give unrelated streams
+    private static long mix(long seed) {
+        seed = (seed ^ (seed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        seed = (seed ^ (seed >>> 27)) * 0x94D049BB133111EBL;
+        return seed ^ (seed >>> 31);
+    }
+}
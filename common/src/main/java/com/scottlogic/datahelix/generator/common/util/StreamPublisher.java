@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Publishes the elements of a stream to each subscriber, as they are requested.
+ * <p>
+ * Each subscriber gets its own stream, which is only created once the first element is requested. The stream is
+ * pulled on the executor, never on the thread that made the request, and only as far as the outstanding demand.
+ * The stream is closed when it completes, fails or the subscription is cancelled.
+ */
+public class StreamPublisher<T> implements DataFlow.Publisher<T> {
+    private final Supplier<Stream<T>> source;
+    private final Executor executor;
+
+    public StreamPublisher(Supplier<Stream<T>> source, Executor executor) {
+        this.source = source;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(DataFlow.Subscriber<? super T> subscriber) {
+        StreamSubscription subscription = new StreamSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private class StreamSubscription implements DataFlow.Subscription, Runnable {
+        private final DataFlow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingSignals = new AtomicInteger();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile Throwable invalidRequest;
+
+        private Stream<T> stream;
+        private Iterator<T> iterator;
+
+        StreamSubscription(DataFlow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n < 1) {
+                invalidRequest = new IllegalArgumentException("Subscribers must request at least one item, but requested " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            if (finished.compareAndSet(false, true)) {
+                signal();
+            }
+        }
+
+        private void signal() {
+            // only one drain runs at a time, later signals are picked up by the drain that is already running
+            if (pendingSignals.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int signals = pendingSignals.get();
+            do {
+                drain();
+                signals = pendingSignals.addAndGet(-signals);
+            } while (signals != 0);
+        }
+
+        private void drain() {
+            if (finished.get()) {
+                closeStream();
+                return;
+            }
+            if (invalidRequest != null) {
+                fail(invalidRequest);
+                return;
+            }
+
+            try {
+                if (iterator == null) {
+                    stream = source.get();
+                    iterator = stream.iterator();
+                }
+
+                while (demand.get() > 0 && !finished.get()) {
+                    if (!iterator.hasNext()) {
+                        if (finished.compareAndSet(false, true)) {
+                            closeStream();
+                            subscriber.onComplete();
+                        }
+                        return;
+                    }
+
+                    T item = iterator.next();
+                    demand.decrementAndGet();
+                    subscriber.onNext(item);
+                }
+
+                if (finished.get()) {
+                    closeStream();
+                }
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void fail(Throwable e) {
+            if (finished.compareAndSet(false, true)) {
+                closeStream();
+                subscriber.onError(e);
+            }
+        }
+
+        private void closeStream() {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+    }
+}
@@ -18,36 +18,72 @@ package com.scottlogic.datahelix.generator.common.whitelist;
 
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * A list of elements, each with a weight that sets how likely it is to be picked at random.
+ * <p>
+ * The elements are held in a single array rather than as weighted elements, and sets of whole numbers or of UTC
+ * datetimes are held as primitive longs, creating the objects as they are read. The weights are only held per element
+ * when they differ from each other.
+ */
 public class DistributedList<T> {
     private static final DistributedList<?> EMPTY = new DistributedList<>(Collections.emptyList());
 
-    private final List<WeightedElement<T>> underlyingWeights;
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final ElementStore<T> store;
+
+    // The normalised weight of every element, or null when all of them share the uniform weight
+    private final double[] weights;
+
+    private final double[] cumulativeWeights;
+
+    private final double uniformWeight;
+
+    private transient volatile List<T> elements;
 
-    private final List<WeightedElement<T>> underlyingCumulativeWeights;
+    private transient volatile Set<T> elementIndex;
+
+    private transient volatile Map<Object, int[]> elementPositions;
+
+    // hashing builds every element, so is only done once; constraints and field specs holding the list rely on it
+    private transient int hashCode;
 
     public DistributedList(final List<WeightedElement<T>> underlyingWeights) {
         if (underlyingWeights.contains(null)) {
             throw new IllegalArgumentException("DistributedSet should not contain null elements");
         }
 
-        List<WeightedElement<T>> normalisedWeights = normalise(underlyingWeights);
-        this.underlyingWeights = Collections.unmodifiableList(normalisedWeights);
-        this.underlyingCumulativeWeights = cumulative(normalisedWeights);
+        final double[] normalisedWeights = normalise(underlyingWeights);
+        final boolean uniform = Arrays.stream(normalisedWeights).allMatch(weight -> weight == normalisedWeights[0]);
+
+        this.store = ElementStore.of(underlyingWeights.stream().map(WeightedElement::element).toArray());
+        this.weights = uniform ? null : normalisedWeights;
+        this.cumulativeWeights = uniform ? null : cumulative(normalisedWeights);
+        this.uniformWeight = normalisedWeights.length == 0 ? 0.0D : normalisedWeights[0];
     }
 
-    private static <T> List<WeightedElement<T>> normalise(final List<WeightedElement<T>> denormalised) {
+    private DistributedList(final Object[] elements) {
+        this.store = ElementStore.of(elements);
+        this.weights = null;
+        this.cumulativeWeights = null;
+        this.uniformWeight = elements.length == 0 ? 0.0D : 1.0D / elements.length;
+    }
+
+    private static <T> double[] normalise(final List<WeightedElement<T>> denormalised) {
         final double total = denormalised.stream()
             .map(WeightedElement::weight)
             .reduce(0.0D, Double::sum);
 
-        // Stream (even with 0 elements) ensure a copy of the original set is returned
         return denormalised.stream()
-            .map(holder -> new WeightedElement<>(holder.element(), holder.weight() / total))
-            .collect(Collectors.toList());
+            .mapToDouble(holder -> holder.weight() / total)
+            .toArray();
     }
 
     public static <T> DistributedList<T> singleton(final T element) {
@@ -55,32 +91,22 @@ public class DistributedList<T> {
     }
 
     public static <T> DistributedList<T> uniform(final Collection<T> underlyingSet) {
-        return new DistributedList<>(
-            underlyingSet.stream()
-                .map(WeightedElement::withDefaultWeight)
-                .collect(Collectors.toList()));
+        return new DistributedList<>(underlyingSet.toArray());
     }
 
-    private static <T> List<WeightedElement<T>> cumulative(List<WeightedElement<T>> nonCumulative) {
-        List<WeightedElement<T>> cumulative = new LinkedList<>();
+    private static double[] cumulative(double[] nonCumulative) {
+        double[] cumulative = new double[nonCumulative.length];
         double runningTotal = 0.0D;
-        for (WeightedElement<T> holder : nonCumulative) {
-            runningTotal += holder.weight();
-            cumulative.add(new WeightedElement<>(holder.element(), runningTotal));
+        for (int index = 0; index < cumulative.length; index++) {
+            runningTotal += nonCumulative[index];
+            cumulative[index] = runningTotal;
         }
 
-        if (!cumulative.isEmpty()) {
-           replaceLastCumulativeElement(cumulative);
+        if (cumulative.length > 0) {
+            cumulative[cumulative.length - 1] = 1.0D;
         }
 
-        return new ArrayList<>(cumulative);
-    }
-
-    private static <T> void replaceLastCumulativeElement(List<WeightedElement<T>> cumulative) {
-        int lastIndex = cumulative.size() - 1;
-        WeightedElement<T> last = cumulative.get(lastIndex);
-        cumulative.remove(lastIndex);
-        cumulative.add(new WeightedElement<>(last.element(), 1.0D));
+        return cumulative;
     }
 
     @SuppressWarnings("unchecked")
@@ -88,8 +114,11 @@ public class DistributedList<T> {
         return (DistributedList<T>) EMPTY;
     }
 
+    /**
+     * @return an unmodifiable view of the elements with their normalised weights, creating each one as it is read
+     */
     public List<WeightedElement<T>> distributedList() {
-        return underlyingWeights;
+        return new WeightedElementView();
     }
 
     public T pickRandomly(RandomNumberGenerator random) {
@@ -97,22 +126,27 @@ public class DistributedList<T> {
     }
 
     private T getElementFromCumulativeDistribution(final double value) {
-        List<Double> weights = underlyingCumulativeWeights.stream()
-            .map(WeightedElement::weight)
-            .collect(Collectors.toList());
+        final int index = cumulativeWeights == null
+            ? uniformIndex(value)
+            : binarySearch(cumulativeWeights, value);
 
-        final int index = binarySearch(weights, value);
+        return store.get(index);
+    }
 
-        return underlyingCumulativeWeights.get(index).element();
+    // The cumulative weight of each index is (index + 1) / size, so the first index whose cumulative weight
+    // reaches the value can be calculated rather than searched for
+    private int uniformIndex(double value) {
+        final int index = (int) Math.ceil(value * store.size()) - 1;
+        return Math.max(0, Math.min(store.size() - 1, index));
     }
 
-    private static int binarySearch(List<Double> weights, double target) {
-        final int index = Collections.binarySearch(weights, target, Double::compare);
+    private static int binarySearch(double[] weights, double target) {
+        final int index = Arrays.binarySearch(weights, target);
 
         // We need to resolve the index.
         // A positive index represents an exact match
         // A negative index represents an inexact match
-        // See Collections.binarySearch javadoc for more information
+        // See Arrays.binarySearch javadoc for more information
         if (index < 0) {
             return (-index) - 1;
         } else {
@@ -125,12 +159,17 @@ public class DistributedList<T> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DistributedList<?> that = (DistributedList<?>) o;
-        return Objects.equals(underlyingWeights, that.underlyingWeights);
+        return hashCode() == that.hashCode() && Objects.equals(distributedList(), that.distributedList());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(underlyingWeights);
+        int hash = hashCode;
+        if (hash == 0) {
+            hash = Objects.hash(distributedList());
+            hashCode = hash;
+        }
+        return hash;
     }
 
     @Override
@@ -139,14 +178,232 @@ public class DistributedList<T> {
     }
 
     public Stream<T> stream() {
-        return distributedList().stream().map(WeightedElement::element);
+        return list().stream();
     }
 
+    /**
+     * @return an unmodifiable view of the elements, in order, which is created once and shared between callers
+     */
     public List<T> list() {
-        return stream().collect(Collectors.toList());
+        List<T> list = elements;
+        if (list == null) {
+            list = store.list();
+            elements = list;
+        }
+        return list;
+    }
+
+    /**
+     * Check whether the list contains the given element, using a hash index of the elements that is built on first use
+     */
+    public boolean contains(Object element) {
+        Set<T> index = elementIndex;
+        if (index == null) {
+            index = Collections.unmodifiableSet(new HashSet<>(list()));
+            elementIndex = index;
+        }
+        return index.contains(element);
+    }
+
+    /**
+     * Find every position of the given element in the list, in ascending order, using an inverted index of the
+     * elements that is built on first use
+     */
+    public int[] indexesOf(Object element) {
+        Map<Object, int[]> positions = elementPositions;
+        if (positions == null) {
+            positions = indexPositions(list());
+            elementPositions = positions;
+        }
+        return positions.getOrDefault(element, NO_POSITIONS).clone();
+    }
+
+    private static Map<Object, int[]> indexPositions(List<?> elements) {
+        Map<Object, PositionsBuilder> builders = new HashMap<>();
+        for (int index = 0; index < elements.size(); index++) {
+            builders.computeIfAbsent(elements.get(index), element -> new PositionsBuilder()).add(index);
+        }
+
+        Map<Object, int[]> positions = new HashMap<>(builders.size() * 4 / 3 + 1);
+        builders.forEach((element, builder) -> positions.put(element, builder.build()));
+        return positions;
+    }
+
+    private static class PositionsBuilder {
+        private int[] positions = new int[1];
+        private int size;
+
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        int[] build() {
+            return size == positions.length ? positions : Arrays.copyOf(positions, size);
+        }
+    }
+
+    public int size() {
+        return store.size();
     }
 
     public boolean isEmpty(){
-        return distributedList().isEmpty();
+        return store.size() == 0;
+    }
+
+    private double weight(int index) {
+        return weights == null ? uniformWeight : weights[index];
+    }
+
+    private class WeightedElementView extends AbstractList<WeightedElement<T>> implements RandomAccess {
+        @Override
+        public WeightedElement<T> get(int index) {
+            return new WeightedElement<>(store.get(index), weight(index));
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    }
+
+    /**
+     * Holds the elements of the list, as longs where every element can be recreated exactly from one
+     */
+    private abstract static class ElementStore<T> {
+        abstract T get(int index);
+
+        abstract int size();
+
+        /**
+         * @return an unmodifiable view of the elements
+         */
+        List<T> list() {
+            return new StoreView<>(this);
+        }
+
+        static <T> ElementStore<T> of(Object[] elements) {
+            if (elements.length > 0 && Arrays.stream(elements).allMatch(WholeNumberStore::canStore)) {
+                return new WholeNumberStore<>(elements);
+            }
+            if (elements.length > 0 && Arrays.stream(elements).allMatch(UtcDateTimeStore::canStore)) {
+                return new UtcDateTimeStore<>(elements);
+            }
+            return new ObjectStore<>(elements);
+        }
+    }
+
+    private static class StoreView<T> extends AbstractList<T> implements RandomAccess {
+        private final ElementStore<T> store;
+
+        StoreView(ElementStore<T> store) {
+            this.store = store;
+        }
+
+        @Override
+        public T get(int index) {
+            return store.get(index);
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    }
+
+    private static class ObjectStore<T> extends ElementStore<T> {
+        private final Object[] elements;
+
+        ObjectStore(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        T get(int index) {
+            return (T) elements[index];
+        }
+
+        @Override
+        int size() {
+            return elements.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        List<T> list() {
+            return Collections.unmodifiableList((List<T>) Arrays.asList(elements));
+        }
+    }
+
+    private static class WholeNumberStore<T> extends ElementStore<T> {
+        private final long[] values;
+
+        WholeNumberStore(Object[] elements) {
+            values = Arrays.stream(elements).mapToLong(element -> ((BigDecimal) element).longValueExact()).toArray();
+        }
+
+        static boolean canStore(Object element) {
+            return element != null
+                && element.getClass() == BigDecimal.class
+                && ((BigDecimal) element).scale() == 0
+                && ((BigDecimal) element).unscaledValue().bitLength() < Long.SIZE;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        T get(int index) {
+            return (T) BigDecimal.valueOf(values[index]);
+        }
+
+        @Override
+        int size() {
+            return values.length;
+        }
+    }
+
+    private static class UtcDateTimeStore<T> extends ElementStore<T> {
+        private static final int NANOS_PER_MILLI = 1_000_000;
+
+        private final long[] epochMillis;
+
+        UtcDateTimeStore(Object[] elements) {
+            epochMillis = Arrays.stream(elements)
+                .mapToLong(element -> ((OffsetDateTime) element).toInstant().toEpochMilli())
+                .toArray();
+        }
+
+        static boolean canStore(Object element) {
+            if (!(element instanceof OffsetDateTime)) {
+                return false;
+            }
+
+            OffsetDateTime dateTime = (OffsetDateTime) element;
+            return dateTime.getOffset().equals(ZoneOffset.UTC)
+                && dateTime.getNano() % NANOS_PER_MILLI == 0
+                && isWithinEpochMillis(dateTime);
+        }
+
+        private static boolean isWithinEpochMillis(OffsetDateTime dateTime) {
+            try {
+                dateTime.toInstant().toEpochMilli();
+                return true;
+            } catch (ArithmeticException e) {
+                return false;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        T get(int index) {
+            return (T) OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis[index]), ZoneOffset.UTC);
+        }
+
+        @Override
+        int size() {
+            return epochMillis.length;
+        }
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedStreamTests {
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        executor = BufferedStream.newDaemonThreadPool(2, "buffered-stream-test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void bufferAsync_preservesTheOrderOfTheSource() {
+        List<Integer> expected = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+
+        List<Integer> actual = BufferedStream.bufferAsync(expected::stream, executor, 7, 3)
+            .collect(Collectors.toList());
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void bufferAsync_withEmptySource_returnsEmptyStream() {
+        assertEquals(0, BufferedStream.bufferAsync(Stream::empty, executor).count());
+    }
+
+    @Test
+    void bufferAsync_withMoreStreamsThanThreads_interleavesWithoutBlocking() {
+        List<Iterator<Integer>> iterators = IntStream.range(0, 10)
+            .mapToObj(i -> BufferedStream.bufferAsync(() -> IntStream.range(0, 500).boxed(), executor, 4, 2).iterator())
+            .collect(Collectors.toList());
+
+        for (int value = 0; value < 500; value++) {
+            for (Iterator<Integer> iterator : iterators) {
+                assertEquals(value, (int) iterator.next());
+            }
+        }
+        iterators.forEach(iterator -> assertFalse(iterator.hasNext()));
+    }
+
+    @Test
+    void bufferAsync_whenSourceThrows_rethrowsAfterTheElementsProducedBeforehand() {
+        Iterator<Integer> iterator = BufferedStream.<Integer>bufferAsync(
+            () -> Stream.of(1, 2, 3).peek(i -> {
+                if (i == 3) {
+                    throw new IllegalArgumentException("source failed");
+                }
+            }),
+            executor).iterator();
+
+        assertEquals(1, (int) iterator.next());
+        assertEquals(2, (int) iterator.next());
+        assertThrows(IllegalArgumentException.class, iterator::hasNext);
+    }
+
+    @Test
+    void bufferAsync_withInfiniteSource_canBeLimited() {
+        long count = BufferedStream.bufferAsync(() -> Stream.iterate(0, i -> i + 1), executor)
+            .limit(10_000)
+            .count();
+
+        assertEquals(10_000, count);
+    }
+
+    @Test
+    void mergeAsync_emitsEveryElementKeepingTheOrderOfEachSource() {
+        List<Supplier<Stream<Integer>>> sources = IntStream.range(0, 5)
+            .mapToObj(source -> (Supplier<Stream<Integer>>) () -> IntStream.range(0, 300).map(i -> source * 1000 + i).boxed())
+            .collect(Collectors.toList());
+
+        List<Integer> actual = BufferedStream.mergeAsync(sources, executor, 8, 4).collect(Collectors.toList());
+
+        assertEquals(1500, actual.size());
+        for (int source = 0; source < 5; source++) {
+            int from = source * 1000;
+            List<Integer> fromSource = actual.stream()
+                .filter(i -> i >= from && i < from + 1000)
+                .collect(Collectors.toList());
+            assertEquals(IntStream.range(from, from + 300).boxed().collect(Collectors.toList()), fromSource);
+        }
+    }
+
+    @Test
+    void mergeAsync_withNoSources_returnsEmptyStream() {
+        assertEquals(0, BufferedStream.<Integer>mergeAsync(Collections.emptyList(), executor, 8, 4).count());
+    }
+}
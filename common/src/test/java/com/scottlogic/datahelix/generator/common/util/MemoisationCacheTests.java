@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoisationCacheTests {
+    @Test
+    void get_withSameKey_computesResultOnce() {
+        MemoisationCache<String, Integer> cache = new MemoisationCache<>(10);
+        AtomicInteger computations = new AtomicInteger();
+
+        cache.get("abc", key -> computations.incrementAndGet());
+        Integer result = cache.get("abc", key -> computations.incrementAndGet());
+
+        assertEquals(Integer.valueOf(1), result);
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void get_withMoreKeysThanMaximum_evictsLeastRecentlyUsed() {
+        MemoisationCache<String, String> cache = new MemoisationCache<>(2);
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("a", String::toUpperCase);
+
+        cache.get("c", String::toUpperCase);
+        String a = cache.get("a", key -> "recomputed");
+        String b = cache.get("b", key -> "recomputed");
+
+        assertEquals("A", a);
+        assertEquals("recomputed", b);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void get_withMaximumOfZero_alwaysComputesResult() {
+        MemoisationCache<String, Integer> cache = new MemoisationCache<>(0);
+        AtomicInteger computations = new AtomicInteger();
+
+        cache.get("abc", key -> computations.incrementAndGet());
+        Integer result = cache.get("abc", key -> computations.incrementAndGet());
+
+        assertEquals(Integer.valueOf(2), result);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitRate());
+    }
+
+    @Test
+    void getHitRate_withNoLookups_isZero() {
+        assertEquals(0, new MemoisationCache<String, String>(10).getHitRate());
+    }
+}
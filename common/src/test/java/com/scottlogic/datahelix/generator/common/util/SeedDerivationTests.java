@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeedDerivationTests {
+    @Test
+    void derive_withSameSeedAndIndex_isRepeatable() {
+        assertEquals(SeedDerivation.derive(1234, 5), SeedDerivation.derive(1234, 5));
+        assertEquals(SeedDerivation.derive(1234, "field"), SeedDerivation.derive(1234, "field"));
+    }
+
+    @Test
+    void derive_withAdjacentIndexes_givesDistinctSeeds() {
+        Set<Long> seeds = LongStream.range(0, 10_000)
+            .map(index -> SeedDerivation.derive(1234, index))
+            .boxed()
+            .collect(Collectors.toSet());
+
+        assertEquals(10_000, seeds.size());
+    }
+
+    @Test
+    void derive_withAdjacentParentSeeds_givesDistinctSeeds() {
+        assertNotEquals(SeedDerivation.derive(1234, 0), SeedDerivation.derive(1235, 0));
+        assertNotEquals(SeedDerivation.derive(1234, 1), SeedDerivation.derive(1235, 0));
+    }
+
+    @Test
+    void derive_fromDerivedSeed_differsFromParent() {
+        long parent = SeedDerivation.derive(1234, 0);
+
+        assertNotEquals(parent, SeedDerivation.derive(parent, 0));
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamPublisherTests {
+    private final Executor executor = Runnable::run;
+
+    @Test
+    void subscribe_onlyPullsAsManyElementsAsRequested() {
+        AtomicInteger pulled = new AtomicInteger();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        new StreamPublisher<>(() -> IntStream.range(0, 100).boxed().peek(i -> pulled.incrementAndGet()), executor)
+            .subscribe(subscriber);
+        subscriber.subscription.request(3);
+
+        assertEquals(IntStream.range(0, 3).boxed().collect(Collectors.toList()), subscriber.items);
+        assertEquals(3, pulled.get());
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void subscribe_whenAllElementsRequested_completes() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        new StreamPublisher<>(() -> Stream.of(1, 2), executor).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(2, subscriber.items.size());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    void subscribe_withoutRequests_doesNotCreateTheStream() {
+        AtomicBoolean created = new AtomicBoolean();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        new StreamPublisher<>(() -> {
+            created.set(true);
+            return Stream.of(1);
+        }, executor).subscribe(subscriber);
+
+        assertFalse(created.get());
+    }
+
+    @Test
+    void cancel_stopsPullingAndClosesTheStream() {
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                if (item == 4) {
+                    subscription.cancel();
+                }
+            }
+        };
+
+        new StreamPublisher<>(
+            () -> Stream.iterate(0, i -> i + 1).peek(i -> pulled.incrementAndGet()).onClose(() -> closed.set(true)),
+            executor).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(5, subscriber.items.size());
+        assertEquals(5, pulled.get());
+        assertTrue(closed.get());
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void subscribe_whenStreamThrows_reportsTheError() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        new StreamPublisher<Integer>(() -> Stream.of(1, 2).peek(i -> {
+            if (i == 2) {
+                throw new IllegalStateException("failed");
+            }
+        }), executor).subscribe(subscriber);
+        subscriber.subscription.request(10);
+
+        assertEquals(1, subscriber.items.size());
+        assertTrue(subscriber.error instanceof IllegalStateException);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void request_withNonPositiveCount_reportsAnError() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        new StreamPublisher<>(() -> Stream.of(1), executor).subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    void request_fromOnNext_isHonouredWithoutRecursion() {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+
+        new StreamPublisher<>(() -> IntStream.range(0, 100_000).boxed(), executor).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertEquals(100_000, subscriber.items.size());
+        assertTrue(subscriber.completed);
+    }
+
+    private static class RecordingSubscriber implements DataFlow.Subscriber<Integer> {
+        final List<Integer> items = new ArrayList<>();
+        DataFlow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(DataFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -19,10 +19,14 @@ package com.scottlogic.datahelix.generator.common.whitelist;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -86,6 +90,82 @@ class DistributedListTest {
         assertEquals(fourthValue, otherFourthValue);
     }
 
+    @Test
+    public void testWeightedRandomPick() {
+        DistributedList<String> set = new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("rare", 1.0D),
+            new WeightedElement<>("common", 3.0D)));
+
+        assertEquals("common", set.pickRandomly(mockOfRandom(0.0D)));
+        assertEquals("common", set.pickRandomly(mockOfRandom(0.74D)));
+        assertEquals("rare", set.pickRandomly(mockOfRandom(0.76D)));
+        assertEquals("rare", set.pickRandomly(mockOfRandom(0.99D)));
+    }
+
+    @Test
+    public void testUniformRandomPickCoversEveryElementInOrder() {
+        List<Integer> elements = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        DistributedList<Integer> set = DistributedList.uniform(elements);
+
+        List<Integer> picked = IntStream.range(0, 1000)
+            .mapToObj(index -> set.pickRandomly(mockOfRandom(1.0D - (index + 0.5D) / 1000)))
+            .collect(Collectors.toList());
+
+        assertEquals(elements, picked);
+    }
+
+    @Test
+    public void testContainsMatchesListMembership() {
+        DistributedList<Object> set = DistributedList.uniform(Arrays.asList("first", 2, null));
+
+        assertTrue(set.contains("first"));
+        assertTrue(set.contains(2));
+        assertTrue(set.contains(null));
+        assertFalse(set.contains("second"));
+        assertFalse(set.contains(2L));
+    }
+
+    @Test
+    public void testListIsCachedAndUnmodifiable() {
+        DistributedList<String> set = prepareTwoElementSet();
+
+        assertSame(set.list(), set.list());
+        assertEquals(4, set.size());
+        assertThrows(UnsupportedOperationException.class, () -> set.list().add("fifth"));
+    }
+
+    @Test
+    public void testWholeNumbersAndUtcDateTimesAreReadBackUnchanged() {
+        List<Object> elements = Arrays.asList(
+            new BigDecimal("12"), new BigDecimal("-9223372036854775808"), BigDecimal.ZERO);
+        List<Object> dateTimes = Arrays.asList(
+            OffsetDateTime.of(2020, 1, 2, 3, 4, 5, 6_000_000, ZoneOffset.UTC),
+            OffsetDateTime.of(1900, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+        DistributedList<Object> numbers = DistributedList.uniform(elements);
+        DistributedList<Object> times = DistributedList.uniform(dateTimes);
+
+        assertEquals(elements, numbers.list());
+        assertEquals(dateTimes, times.list());
+        assertTrue(numbers.contains(new BigDecimal("12")));
+        assertFalse(numbers.contains(new BigDecimal("12.0")));
+        assertEquals(new BigDecimal("12"), numbers.pickRandomly(mockOfRandom(0.99D)));
+    }
+
+    @Test
+    public void testWeightsAreNormalisedWhetherOrNotTheyAreUniform() {
+        DistributedList<String> set = new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("rare", 1.0D),
+            new WeightedElement<>("common", 3.0D)));
+
+        assertEquals(
+            Arrays.asList(new WeightedElement<>("rare", 0.25D), new WeightedElement<>("common", 0.75D)),
+            set.distributedList());
+        assertEquals(
+            Arrays.asList(new WeightedElement<>("first", 0.5D), new WeightedElement<>("second", 0.5D)),
+            DistributedList.uniform(Arrays.asList("first", "second")).distributedList());
+    }
+
     private static RandomNumberGenerator mockOfRandom(double value) {
         RandomNumberGenerator generator = mock(RandomNumberGenerator.class);
         when(generator.nextDouble(0.0D, 1.0D)).thenReturn(value);
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.config.detail;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * One of a number of equally sized, contiguous slices of the rows a profile would generate in a single run.
+ * Shards are numbered from 1, so the rows of shards 1/n to n/n together are the rows of the whole dataset, in order.
+ */
+public class Shard {
+    public static final Shard WHOLE = new Shard(1, 1);
+
+    private final int index;
+    private final int count;
+
+    public Shard(int index, int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new ValidationException("Shard must be between 1/" + Math.max(count, 1) + " and " + count + "/" + count + ", but was " + index + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * @param shard the shard in the form {@code <index>/<count>}, e.g. {@code 3/16}
+     */
+    public static Shard parse(String shard) {
+        String[] parts = shard.trim().split("/");
+        if (parts.length != 2) {
+            throw new ValidationException("Shard must be in the form <index>/<count>, but was " + shard);
+        }
+
+        try {
+            return new Shard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Shard must be in the form <index>/<count>, but was " + shard);
+        }
+    }
+
+    public long getFirstRow(long totalRows) {
+        return boundary(index - 1, totalRows);
+    }
+
+    public long getRowCount(long totalRows) {
+        return boundary(index, totalRows) - boundary(index - 1, totalRows);
+    }
+
+    private long boundary(int shardIndex, long totalRows) {
+        return BigInteger.valueOf(totalRows)
+            .multiply(BigInteger.valueOf(shardIndex))
+            .divide(BigInteger.valueOf(count))
+            .longValueExact();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Shard shard = (Shard) o;
+        return index == shard.index && count == shard.count;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, count);
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
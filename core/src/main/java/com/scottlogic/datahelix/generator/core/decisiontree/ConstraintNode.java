@@ -22,19 +22,32 @@ import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.Atomic
 import java.util.*;
 
 public class ConstraintNode implements Node {
+    private static final Class<?> UNMODIFIABLE_SET_CLASS = Collections.unmodifiableSet(new HashSet<>()).getClass();
+
     private final Set<AtomicConstraint> atomicConstraints;
     private final Set<FieldSpecRelation> relations;
     private final Set<DecisionNode> decisions;
     private final Set<NodeMarking> nodeMarkings;
 
+    // nodes are compared and hashed repeatedly as sets of them are rebuilt, so their deep hash is only computed once
+    private transient int hashCode;
+
     public ConstraintNode(Set<AtomicConstraint> atomicConstraints,
                           Set<FieldSpecRelation> relations,
                           Set<DecisionNode> decisions,
                           Set<NodeMarking> nodeMarkings) {
-        this.atomicConstraints = Collections.unmodifiableSet(atomicConstraints);
-        this.relations = Collections.unmodifiableSet(relations);
-        this.decisions = Collections.unmodifiableSet(decisions);
-        this.nodeMarkings = Collections.unmodifiableSet(nodeMarkings);
+        this.atomicConstraints = unmodifiable(atomicConstraints);
+        this.relations = unmodifiable(relations);
+        this.decisions = unmodifiable(decisions);
+        this.nodeMarkings = unmodifiable(nodeMarkings);
+    }
+
+    // builders share the sets of the node they were made from, so a set that is already wrapped is kept as it is
+    // rather than wrapped again each time the node is rebuilt
+    private static <T> Set<T> unmodifiable(Set<T> set) {
+        return set.getClass() == UNMODIFIABLE_SET_CLASS
+            ? set
+            : Collections.unmodifiableSet(set);
     }
 
     public Set<AtomicConstraint> getAtomicConstraints() {
@@ -86,7 +99,8 @@ public class ConstraintNode implements Node {
         if (o == null || getClass() != o.getClass()) return false;
         ConstraintNode that = (ConstraintNode) o;
 
-        return Objects.equals(atomicConstraints, that.atomicConstraints) &&
+        return hashCode() == that.hashCode() &&
+            Objects.equals(atomicConstraints, that.atomicConstraints) &&
             Objects.equals(relations, that.relations) &&
             Objects.equals(decisions, that.decisions) &&
             Objects.equals(nodeMarkings, that.nodeMarkings);
@@ -94,7 +108,12 @@ public class ConstraintNode implements Node {
 
     @Override
     public int hashCode() {
-        return Objects.hash(atomicConstraints, relations, decisions, nodeMarkings);
+        int hash = hashCode;
+        if (hash == 0) {
+            hash = Objects.hash(atomicConstraints, relations, decisions, nodeMarkings);
+            hashCode = hash;
+        }
+        return hash;
     }
 
     static ConstraintNode merge(Iterator<ConstraintNode> constraintNodeIterator) {
@@ -17,18 +17,14 @@ package com.scottlogic.datahelix.generator.core.decisiontree;
 
 import com.scottlogic.datahelix.generator.core.fieldspecs.relations.FieldSpecRelation;
 import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
-import com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator;
 import com.scottlogic.datahelix.generator.common.SetUtils;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static java.util.stream.Stream.concat;
-
 public class ConstraintNodeBuilder {
     private final Set<AtomicConstraint> atomicConstraints;
     private final Set<FieldSpecRelation> relations;
@@ -58,33 +54,19 @@ public class ConstraintNodeBuilder {
     }
 
     public ConstraintNodeBuilder removeAtomicConstraint(AtomicConstraint atomicConstraint) {
-        return setAtomicConstraints(atomicConstraints
-            .stream()
-            .filter(constraint -> !constraint.equals(atomicConstraint))
-            .collect(Collectors.toSet())
-        );
+        return setAtomicConstraints(without(atomicConstraints, Collections.singleton(atomicConstraint)));
     }
 
     public ConstraintNodeBuilder addAtomicConstraints(Set<AtomicConstraint> atomicConstraints) {
-        return setAtomicConstraints(
-            concat(
-                this.atomicConstraints.stream(),
-                atomicConstraints.stream()
-            ).collect(Collectors.toSet())
-        );
+        return setAtomicConstraints(with(this.atomicConstraints, atomicConstraints));
     }
 
     public ConstraintNodeBuilder addAtomicConstraints(AtomicConstraint... constraints) {
-        return addAtomicConstraints(Arrays.stream(constraints).collect(Collectors.toSet()));
+        return addAtomicConstraints(SetUtils.setOf(constraints));
     }
 
     public ConstraintNodeBuilder addRelations(Set<FieldSpecRelation> relations) {
-        return setRelations(
-            concat(
-                this.relations.stream(),
-                relations.stream())
-            .collect(Collectors.toSet())
-        );
+        return setRelations(with(this.relations, relations));
     }
 
     public ConstraintNodeBuilder addRelations(FieldSpecRelation... constraints) {
@@ -100,10 +82,7 @@ public class ConstraintNodeBuilder {
     }
 
     public ConstraintNodeBuilder removeDecisions(Collection<DecisionNode> decisionNodes) {
-        return setDecisions(
-            decisions.stream()
-                .filter(decision -> !decisionNodes.contains(decision))
-                .collect(Collectors.toSet()));
+        return setDecisions(without(decisions, decisionNodes));
     }
 
     public ConstraintNodeBuilder addDecision(DecisionNode decisionNode) {
@@ -111,11 +90,7 @@ public class ConstraintNodeBuilder {
     }
 
     public ConstraintNodeBuilder addDecisions(Collection<DecisionNode> decisions) {
-        return setDecisions(
-            concat(
-                this.decisions.stream(),
-                decisions.stream()
-            ).collect(Collectors.toSet()));
+        return setDecisions(with(this.decisions, decisions));
     }
 
 
@@ -124,15 +99,32 @@ public class ConstraintNodeBuilder {
     }
 
     public ConstraintNodeBuilder markNode(NodeMarking marking) {
-        return setNodeMarkings(
-            FlatMappingSpliterator.flatMap(
-                Stream.of(Collections.singleton(marking), nodeMarkings),
-                Collection::stream
-            ).collect(Collectors.toSet()));
+        return setNodeMarkings(with(nodeMarkings, Collections.singleton(marking)));
     }
 
     public ConstraintNode build() {
         return new ConstraintNode(atomicConstraints, relations, decisions, nodeMarkings);
     }
 
+    /**
+     * Sets are never modified once they are held by a builder or node, so a set that the change leaves as it is can be
+     * shared with the new builder rather than copied, and keeps the hash codes its elements have already computed.
+     */
+    private static <T> Set<T> with(Set<T> existing, Collection<T> additions) {
+        if (existing.containsAll(additions)) {
+            return existing;
+        }
+
+        return Stream.concat(existing.stream(), additions.stream()).collect(Collectors.toSet());
+    }
+
+    private static <T> Set<T> without(Set<T> existing, Collection<T> removals) {
+        if (removals.stream().noneMatch(existing::contains)) {
+            return existing;
+        }
+
+        return existing.stream()
+            .filter(element -> !removals.contains(element))
+            .collect(Collectors.toSet());
+    }
 }
@@ -27,6 +27,9 @@ public final class DecisionNode implements Node {
     private final Set<ConstraintNode> options;
     private final Set<NodeMarking> nodeMarkings;
 
+    // computed from the options in their iteration order, which never changes as they are held unmodifiable
+    private transient int hashCode;
+
     public DecisionNode(ConstraintNode... options) {
         this(Collections.unmodifiableSet(SetUtils.setOf(options)));
     }
@@ -80,7 +83,12 @@ public final class DecisionNode implements Node {
 
     @Override
     public int hashCode() {
-        List<ConstraintNode> optionsList = new ArrayList<>(options);
-        return Objects.hash(optionsList);
+        int hash = hashCode;
+        if (hash == 0) {
+            List<ConstraintNode> optionsList = new ArrayList<>(options);
+            hash = Objects.hash(optionsList);
+            hashCode = hash;
+        }
+        return hash;
     }
 }
@@ -16,6 +16,8 @@
 
 package com.scottlogic.datahelix.generator.core.fieldspecs;
 
+import com.google.inject.Inject;
+import com.scottlogic.datahelix.generator.common.util.MemoisationCache;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.common.whitelist.WeightedElement;
 import com.scottlogic.datahelix.generator.core.restrictions.bool.BooleanRestrictionsMerger;
@@ -24,15 +26,33 @@ import com.scottlogic.datahelix.generator.core.restrictions.TypedRestrictions;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictionsMerger;
 import com.scottlogic.datahelix.generator.common.SetUtils;
 
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Returns a FieldSpec that permits only data permitted by all of its inputs
+ * <p>
+ * Merges are remembered, keyed on the identities of their operands, so that merging the same field specs again, as
+ * the tree pruner and solver do for every option they visit, returns the earlier result.
  */
 public class FieldSpecMerger {
+    public static final int MAX_CACHED_MERGES = 10_000;
+
     private final RestrictionsMergeOperation restrictionMergeOperation =
         new RestrictionsMergeOperation(new LinearRestrictionsMerger(), new StringRestrictionsMerger(), new BooleanRestrictionsMerger());
+    private final MemoisationCache<MergeKey, Optional<FieldSpec>> merges;
+
+    @Inject
+    public FieldSpecMerger() {
+        this(MAX_CACHED_MERGES);
+    }
+
+    /**
+     * @param maxCachedMerges The number of merges to remember, zero for mergers whose operands are rarely merged twice
+     */
+    public FieldSpecMerger(int maxCachedMerges) {
+        this.merges = new MemoisationCache<>(maxCachedMerges);
+    }
 
     /**
      * Null parameters are permitted, and are synonymous with an empty FieldSpec
@@ -40,6 +60,16 @@ public class FieldSpecMerger {
      * Returning an empty Optional conveys that the fields were unmergeable.
      */
     public Optional<FieldSpec> merge(FieldSpec left, FieldSpec right, boolean useFinestGranularityAvailable) {
+        return merges.get(
+            new MergeKey(left, right, useFinestGranularityAvailable),
+            key -> mergeUncached(left, right, useFinestGranularityAvailable));
+    }
+
+    MemoisationCache<?, ?> getMergeCache() {
+        return merges;
+    }
+
+    private Optional<FieldSpec> mergeUncached(FieldSpec left, FieldSpec right, boolean useFinestGranularityAvailable) {
         if (nullOnly(left) || nullOnly(right)){
             return nullOnlyOrEmpty(bothAreNullable(left, right));
         }
@@ -71,12 +101,14 @@ public class FieldSpecMerger {
         return new WeightedElement<>(left.element(), left.weight() + right.weight());
     }
 
-    //TODO try a performance test with this replaced with combineSetWithRestrictions()
-
     private Optional<FieldSpec> mergeSets(WhitelistFieldSpec left, WhitelistFieldSpec right) {
+        Map<Object, List<WeightedElement<Object>>> rightElements = new HashMap<>();
+        for (WeightedElement<Object> rightHolder : right.getWhitelist().distributedList()) {
+            rightElements.computeIfAbsent(rightHolder.element(), element -> new ArrayList<>()).add(rightHolder);
+        }
+
         DistributedList<Object> set = new DistributedList<>(left.getWhitelist().distributedList().stream()
-            .flatMap(leftHolder -> right.getWhitelist().distributedList().stream()
-                .filter(rightHolder -> elementsEqual(leftHolder, rightHolder))
+            .flatMap(leftHolder -> rightElements.getOrDefault(leftHolder.element(), Collections.emptyList()).stream()
                 .map(rightHolder -> mergeElements(leftHolder, rightHolder)))
             .distinct()
             .collect(Collectors.toList()));
@@ -84,9 +116,6 @@ public class FieldSpecMerger {
         FieldSpec newFieldSpec = set.isEmpty() ? FieldSpecFactory.nullOnly() : FieldSpecFactory.fromList(set);
         return addNullability(left.isNullable(), right.isNullable(), newFieldSpec);
     }
-    private static <T> boolean elementsEqual(WeightedElement<T> left, WeightedElement<T> right) {
-        return left.element().equals(right.element());
-    }
 
     private Optional<FieldSpec> combineSetWithRestrictions(WhitelistFieldSpec set, FieldSpec restrictions) {
         DistributedList<Object> newSet = new DistributedList<>(
@@ -143,4 +172,36 @@ public class FieldSpecMerger {
     private Optional<FieldSpec> nullOnlyOrEmpty(boolean nullable) {
         return nullable ? Optional.of(FieldSpecFactory.nullOnly()) : Optional.empty();
     }
+
+    /**
+     * Field specs are keyed by identity, as their equality does not account for everything that affects a merge,
+     * and the specs that are merged repeatedly are the same instances each time.
+     */
+    private static class MergeKey {
+        private final FieldSpec left;
+        private final FieldSpec right;
+        private final boolean useFinestGranularityAvailable;
+
+        MergeKey(FieldSpec left, FieldSpec right, boolean useFinestGranularityAvailable) {
+            this.left = left;
+            this.right = right;
+            this.useFinestGranularityAvailable = useFinestGranularityAvailable;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            MergeKey that = (MergeKey) o;
+            return left == that.left
+                && right == that.right
+                && useFinestGranularityAvailable == that.useFinestGranularityAvailable;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(left) + System.identityHashCode(right))
+                + Boolean.hashCode(useFinestGranularityAvailable);
+        }
+    }
 }
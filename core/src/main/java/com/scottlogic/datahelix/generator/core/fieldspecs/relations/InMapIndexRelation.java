@@ -19,13 +19,16 @@ package com.scottlogic.datahelix.generator.core.fieldspecs.relations;
 import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
+import com.scottlogic.datahelix.generator.core.fieldspecs.WhitelistFieldSpec;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
 import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class InMapIndexRelation implements FieldSpecRelation
 {
@@ -41,15 +44,32 @@ public class InMapIndexRelation implements FieldSpecRelation
 
     @Override
     public FieldSpec createModifierFromOtherFieldSpec(FieldSpec otherFieldSpec) {
-        List<Object> whiteList = new ArrayList<>();
+        List<Object> whiteList = otherFieldSpec instanceof WhitelistFieldSpec
+            ? indexesOfValues(((WhitelistFieldSpec) otherFieldSpec).getWhitelist())
+            : indexesOfCombinableValues(otherFieldSpec);
 
-        for (int i = 0; i < underlyingList.list().size(); i++) {
-            Object testingElement = underlyingList.list().get(i);
-            if (otherFieldSpec.canCombineWithWhitelistValue(testingElement)) {
-                whiteList.add(BigDecimal.valueOf(i));
+        return FieldSpecFactory.fromList(DistributedList.uniform(whiteList)).withNotNull();
+    }
+
+    private List<Object> indexesOfCombinableValues(FieldSpec otherFieldSpec) {
+        List<Object> indexes = new ArrayList<>();
+        List<Object> values = underlyingList.list();
+        for (int i = 0; i < values.size(); i++) {
+            if (otherFieldSpec.canCombineWithWhitelistValue(values.get(i))) {
+                indexes.add(BigDecimal.valueOf(i));
             }
         }
-        return FieldSpecFactory.fromList(DistributedList.uniform(whiteList)).withNotNull();
+        return indexes;
+    }
+
+    // Look each permitted value up in the inverted index of the map column, rather than testing every row
+    private List<Object> indexesOfValues(DistributedList<Object> values) {
+        return values.stream()
+            .distinct()
+            .flatMapToInt(value -> Arrays.stream(underlyingList.indexesOf(value)))
+            .sorted()
+            .mapToObj(BigDecimal::valueOf)
+            .collect(Collectors.toList());
     }
 
     @Override
@@ -20,12 +20,13 @@ import com.google.inject.Inject;
 
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class AbstractDataGeneratorMonitor implements DataGeneratorMonitor {
     final PrintWriter writer;
 
-    private List<String> linesToPrintAtEndOfGeneration = new ArrayList<>();
+    private final List<String> linesToPrintAtEndOfGeneration = Collections.synchronizedList(new ArrayList<>());
 
     @Inject
     AbstractDataGeneratorMonitor(PrintWriter writer) {
@@ -22,5 +22,6 @@ public interface DataGeneratorMonitor {
     default void generationStarting() {}
     default void rowEmitted(GeneratedObject row) {}
     default void endGeneration() {}
+    default void outputBufferFull(long nanosWaited) {}
     void addLineToPrintAtEndOfGeneration(String line);
 }
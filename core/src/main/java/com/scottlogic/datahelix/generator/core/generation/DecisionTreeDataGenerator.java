@@ -19,7 +19,9 @@ package com.scottlogic.datahelix.generator.core.generation;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.util.BufferedStream;
 import com.scottlogic.datahelix.generator.core.profile.Profile;
+import com.scottlogic.datahelix.generator.core.config.detail.Shard;
 import com.scottlogic.datahelix.generator.core.config.detail.VisualiserLevel;
 import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
 import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTreeFactory;
@@ -31,7 +33,11 @@ import com.scottlogic.datahelix.generator.core.generation.visualiser.Visualiser;
 import com.scottlogic.datahelix.generator.core.generation.visualiser.VisualiserFactory;
 import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class DecisionTreeDataGenerator implements DataGenerator {
@@ -45,7 +51,11 @@ public class DecisionTreeDataGenerator implements DataGenerator {
     private final CombinationStrategy partitionCombiner;
     private final UpfrontTreePruner upfrontTreePruner;
     private final VisualiserFactory visualiserFactory;
+    private final RandomGenerationWorkers randomGenerationWorkers;
     private final long maxRows;
+    private final Shard shard;
+    private final int threads;
+    private ExecutorService partitionExecutor;
 
     @Inject
     public DecisionTreeDataGenerator(
@@ -57,7 +67,10 @@ public class DecisionTreeDataGenerator implements DataGenerator {
         CombinationStrategy combinationStrategy,
         UpfrontTreePruner upfrontTreePruner,
         VisualiserFactory visualiserFactory,
-        @Named("config:maxRows") long maxRows) {
+        RandomGenerationWorkers randomGenerationWorkers,
+        @Named("config:maxRows") long maxRows,
+        Shard shard,
+        @Named("config:threads") int threads) {
         this.decisionTreeGenerator = decisionTreeGenerator;
         this.treePartitioner = treePartitioner;
         this.treeOptimiser = optimiser;
@@ -66,7 +79,10 @@ public class DecisionTreeDataGenerator implements DataGenerator {
         this.partitionCombiner = combinationStrategy;
         this.upfrontTreePruner = upfrontTreePruner;
         this.visualiserFactory = visualiserFactory;
+        this.randomGenerationWorkers = randomGenerationWorkers;
         this.maxRows = maxRows;
+        this.shard = shard;
+        this.threads = threads;
     }
 
     @Override
@@ -82,17 +98,46 @@ public class DecisionTreeDataGenerator implements DataGenerator {
             return Stream.empty();
         }
 
-        Stream<Supplier<Stream<DataBag>>> partitionedDataBags = treePartitioner
-            .splitTreeIntoPartitions(decisionTree)
-            .map(treeOptimiser::optimiseTree)
-            .map(tree -> () -> treeWalker.walk(tree));
+        long firstRow = shard.getFirstRow(maxRows);
+        long rowCount = shard.getRowCount(maxRows);
+        Stream<DecisionTree> partitions = treePartitioner.splitTreeIntoPartitions(decisionTree);
+        Stream<DataBag> dataBags = randomGenerationWorkers.shouldGenerate(profile)
+            ? randomGenerationWorkers.generate(
+                partitions.map(treeOptimiser::optimiseTree).collect(Collectors.toList()),
+                firstRow,
+                rowCount)
+            : partitionCombiner.permute(walkPartitions(partitions)).skip(firstRow).limit(rowCount);
 
-        return partitionCombiner.permute(partitionedDataBags)
+        return dataBags
             .map(d->(GeneratedObject)d)
-            .limit(maxRows)
             .peek(monitor::rowEmitted);
     }
 
+    private Stream<Supplier<Stream<DataBag>>> walkPartitions(Stream<DecisionTree> partitions) {
+        if (threads <= 1) {
+            return partitions
+                .map(treeOptimiser::optimiseTree)
+                .map(tree -> () -> treeWalker.walk(tree));
+        }
+
+        // Each partition is optimised and walked on the pool, its rows are buffered until the combination strategy
+        // asks for them. Every call to a supplier starts a new walk, as the strategies may restart a partition.
+        ExecutorService executor = getPartitionExecutor();
+        List<CompletableFuture<DecisionTree>> optimisedPartitions = partitions
+            .map(tree -> CompletableFuture.supplyAsync(() -> treeOptimiser.optimiseTree(tree), executor))
+            .collect(Collectors.toList());
+
+        return optimisedPartitions.stream()
+            .map(tree -> () -> BufferedStream.bufferAsync(() -> treeWalker.walk(tree.join()), executor));
+    }
+
+    private synchronized ExecutorService getPartitionExecutor() {
+        if (partitionExecutor == null) {
+            partitionExecutor = BufferedStream.newDaemonThreadPool(threads, "partition-walker");
+        }
+        return partitionExecutor;
+    }
+
     private void visualiseTree(DecisionTree decisionTree, String title) {
         try (Visualiser visualiser = visualiserFactory.create(VisualiserLevel.STANDARD, title)) {
             visualiser.printTree(title, decisionTree);
@@ -24,17 +24,26 @@ import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
 import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
 
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 public class FieldSpecValueGenerator {
     private final DataGenerationType dataType;
-    private final JavaUtilRandomNumberGenerator randomNumberGenerator;
+    private final Function<Field, JavaUtilRandomNumberGenerator> fieldRandomNumberGenerators;
 
     @Inject
     public FieldSpecValueGenerator(DataGenerationType dataGenerationType,
                                    JavaUtilRandomNumberGenerator randomNumberGenerator) {
+        this(dataGenerationType, field -> randomNumberGenerator);
+    }
+
+    /**
+     * @param fieldRandomNumberGenerators the generator to draw random values of each field from
+     */
+    public FieldSpecValueGenerator(DataGenerationType dataGenerationType,
+                                   Function<Field, JavaUtilRandomNumberGenerator> fieldRandomNumberGenerators) {
         this.dataType = dataGenerationType;
-        this.randomNumberGenerator = randomNumberGenerator;
+        this.fieldRandomNumberGenerators = fieldRandomNumberGenerators;
     }
 
     public boolean isRandom() {
@@ -44,12 +53,12 @@ public class FieldSpecValueGenerator {
     public Stream<DataBagValue> generate(Field field, FieldSpec spec) {
         FieldValueSource fieldValueSource = spec.getFieldValueSource();
 
-        return getDataValues(fieldValueSource, field.isUnique())
+        return getDataValues(fieldValueSource, field)
             .map(DataBagValue::new);
     }
 
-    private Stream<Object> getDataValues(FieldValueSource source, boolean unique) {
-        if (unique) {
+    private Stream<Object> getDataValues(FieldValueSource source, Field field) {
+        if (field.isUnique()) {
             return source.generateAllValues();
         } 
 
@@ -59,7 +68,7 @@ public class FieldSpecValueGenerator {
             case INTERESTING:
                 return source.generateInterestingValues();
             case RANDOM:
-                return source.generateRandomValues(randomNumberGenerator);
+                return source.generateRandomValues(fieldRandomNumberGenerators.apply(field));
             default:
                 throw new UnsupportedOperationException("No data generation type set.");
         }
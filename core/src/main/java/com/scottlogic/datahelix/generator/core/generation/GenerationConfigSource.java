@@ -19,14 +19,22 @@ package com.scottlogic.datahelix.generator.core.generation;
 import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
+import com.scottlogic.datahelix.generator.core.config.detail.RowOrdering;
+import com.scottlogic.datahelix.generator.core.config.detail.Shard;
 import com.scottlogic.datahelix.generator.core.config.detail.VisualiserLevel;
 
 import java.nio.file.Path;
+import java.util.Optional;
 
 public interface GenerationConfigSource  {
     DataGenerationType getGenerationType();
     CombinationStrategyType getCombinationStrategyType();
     long getMaxRows();
+    int getThreads();
+    RowOrdering getRowOrdering();
+    Shard getShard();
+    Optional<Long> getSeed();
+    Optional<Path> getRegexCacheDirectory();
 
     MonitorType getMonitorType();
 
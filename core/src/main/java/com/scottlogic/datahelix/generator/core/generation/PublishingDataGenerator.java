@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation;
+
+import com.google.inject.Inject;
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.util.DataFlow;
+import com.scottlogic.datahelix.generator.common.util.StreamPublisher;
+import com.scottlogic.datahelix.generator.core.profile.Profile;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Publishes the data generated for a profile to subscribers that control how fast they receive it, for consumers that
+ * are pushed data rather than pulling it from the stream returned by {@link DataGenerator}.
+ * <p>
+ * Each subscriber gets its own generation run on the given executor. Rows are only generated as they are requested,
+ * and cancelling a subscription stops generation.
+ */
+public class PublishingDataGenerator {
+    private final DataGenerator dataGenerator;
+
+    @Inject
+    public PublishingDataGenerator(DataGenerator dataGenerator) {
+        this.dataGenerator = dataGenerator;
+    }
+
+    public DataFlow.Publisher<GeneratedObject> publish(Profile profile, Executor executor) {
+        return new StreamPublisher<>(() -> dataGenerator.generateData(profile), executor);
+    }
+
+    /**
+     * @param batchSize the number of rows in each batch, only the last batch may be smaller
+     * @return a publisher of batches of rows, where each request is for a number of batches
+     */
+    public DataFlow.Publisher<List<GeneratedObject>> publishBatches(Profile profile, int batchSize, Executor executor) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batches must contain at least one row");
+        }
+
+        return new StreamPublisher<>(() -> batches(dataGenerator.generateData(profile), batchSize), executor);
+    }
+
+    private static Stream<List<GeneratedObject>> batches(Stream<GeneratedObject> rows, int batchSize) {
+        Iterator<GeneratedObject> rowIterator = rows.iterator();
+        Iterator<List<GeneratedObject>> batchIterator = new Iterator<List<GeneratedObject>>() {
+            @Override
+            public boolean hasNext() {
+                return rowIterator.hasNext();
+            }
+
+            @Override
+            public List<GeneratedObject> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                List<GeneratedObject> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && rowIterator.hasNext()) {
+                    batch.add(rowIterator.next());
+                }
+                return batch;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batchIterator, Spliterator.ORDERED), false)
+            .onClose(rows::close);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.util.BufferedStream;
+import com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator;
+import com.scottlogic.datahelix.generator.common.util.SeedDerivation;
+import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
+import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
+import com.scottlogic.datahelix.generator.core.config.detail.RowOrdering;
+import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
+import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+import com.scottlogic.datahelix.generator.core.generation.databags.RowSpecDataBagGenerator;
+import com.scottlogic.datahelix.generator.core.generation.grouped.FieldSpecGroupValueGenerator;
+import com.scottlogic.datahelix.generator.core.profile.Profile;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.RandomOptionPicker;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.RowSpecTreeSolver;
+import com.scottlogic.datahelix.generator.core.walker.pruner.TreePruner;
+import com.scottlogic.datahelix.generator.core.walker.rowspec.PotentialRowSpecCount;
+import com.scottlogic.datahelix.generator.core.walker.rowspec.RandomRowSpecDecisionTreeWalker;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generates random rows in blocks of {@value #ROWS_PER_BLOCK}. Every block is generated with its own random number
+ * streams, seeded from the master seed and the index of the block, so any block can be generated independently of the
+ * blocks before it. A run therefore produces the same rows whichever shard of the rows it generates and however many
+ * workers generate the blocks. Within a block each partition, and each field of a partition, has its own stream too.
+ * <p>
+ * In ORDERED mode blocks are emitted in order, so the output is reproducible for a given seed. In UNORDERED mode each
+ * block is emitted as soon as a worker has generated it.
+ * <p>
+ * Each block builds its own walker, as the random streams are part of it. The solved tree nodes, row spec groups and
+ * generation plans are shared between walkers, so they are not lost at each block boundary.
+ */
+public class RandomGenerationWorkers {
+    static final int ROWS_PER_BLOCK = 10_000;
+
+    private final ConstraintReducer constraintReducer;
+    private final TreePruner treePruner;
+    private final PotentialRowSpecCount potentialRowSpecCount;
+    private final CombinationStrategy combinationStrategy;
+    private final CombinationStrategyType combinationStrategyType;
+    private final DataGenerationType generationType;
+    private final long masterSeed;
+    private final int workers;
+    private final RowOrdering rowOrdering;
+    private ExecutorService workerExecutor;
+
+    @Inject
+    public RandomGenerationWorkers(
+        ConstraintReducer constraintReducer,
+        TreePruner treePruner,
+        PotentialRowSpecCount potentialRowSpecCount,
+        CombinationStrategy combinationStrategy,
+        CombinationStrategyType combinationStrategyType,
+        DataGenerationType generationType,
+        @Named("config:randomSeed") long masterSeed,
+        @Named("config:threads") int workers,
+        RowOrdering rowOrdering) {
+        this.constraintReducer = constraintReducer;
+        this.treePruner = treePruner;
+        this.potentialRowSpecCount = potentialRowSpecCount;
+        this.combinationStrategy = combinationStrategy;
+        this.combinationStrategyType = combinationStrategyType;
+        this.generationType = generationType;
+        this.masterSeed = masterSeed;
+        this.workers = workers;
+        this.rowOrdering = rowOrdering;
+    }
+
+    public boolean shouldGenerate(Profile profile) {
+        // unique fields are generated exhaustively, so they cannot be split into independently seeded blocks
+        return generationType == DataGenerationType.RANDOM
+            && profile.getFields().stream().noneMatch(Field::isUnique);
+    }
+
+    /**
+     * @param partitions the optimised partitions of the decision tree
+     * @param firstRow   the index of the first row to emit
+     * @param rowCount   the maximum number of rows to emit
+     * @return the random rows from firstRow onwards, ending early if the partitions cannot produce any more rows
+     */
+    public Stream<DataBag> generate(List<DecisionTree> partitions, long firstRow, long rowCount) {
+        Iterator<List<DataBag>> blocks = new BlockIterator(partitions, firstRow, firstRow + rowCount);
+
+        return FlatMappingSpliterator.flatMap(
+            StreamSupport.stream(Spliterators.spliteratorUnknownSize(blocks, Spliterator.ORDERED), false),
+            List::stream)
+            .limit(rowCount);
+    }
+
+    /**
+     * @param skippedRows the rows at the start of the block that come before the first row to emit
+     * @param endRow      the index, within the block, of the row after the last one to emit
+     */
+    private List<DataBag> generateBlock(List<DecisionTree> partitions, long block, int skippedRows, int endRow) {
+        long blockSeed = SeedDerivation.derive(masterSeed, block);
+
+        return combinationStrategy.permute(IntStream.range(0, partitions.size())
+            .mapToObj(partition -> walkPartition(partitions.get(partition), SeedDerivation.derive(blockSeed, partition))))
+            .limit(endRow)
+            .skip(skippedRows)
+            .collect(Collectors.toList());
+    }
+
+    private Supplier<Stream<DataBag>> walkPartition(DecisionTree partition, long partitionSeed) {
+        JavaUtilRandomNumberGenerator random = new JavaUtilRandomNumberGenerator(partitionSeed);
+        Map<Field, JavaUtilRandomNumberGenerator> fieldRandoms = new HashMap<>();
+        RowSpecDataBagGenerator rowSpecDataBagGenerator = new RowSpecDataBagGenerator(
+            new FieldSpecGroupValueGenerator(
+                new FieldSpecValueGenerator(
+                    DataGenerationType.RANDOM,
+                    field -> fieldRandoms.computeIfAbsent(
+                        field,
+                        f -> new JavaUtilRandomNumberGenerator(SeedDerivation.derive(partitionSeed, f.getName())))),
+                combinationStrategyType),
+            combinationStrategy);
+        DecisionTreeWalker walker = new RandomRowSpecDecisionTreeWalker(
+            new RowSpecTreeSolver(constraintReducer, treePruner, new RandomOptionPicker(random)),
+            rowSpecDataBagGenerator,
+            potentialRowSpecCount,
+            random);
+
+        return () -> walker.walk(partition);
+    }
+
+    private synchronized ExecutorService getWorkerExecutor() {
+        if (workerExecutor == null) {
+            workerExecutor = BufferedStream.newDaemonThreadPool(workers, "random-worker");
+        }
+        return workerExecutor;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Hands out blocks of rows, keeping up to two blocks per worker in progress ahead of the consumer.
+     */
+    private class BlockIterator implements Iterator<List<DataBag>> {
+        private final List<DecisionTree> partitions;
+        private final long firstRow;
+        private final long endRow;
+        private final long endBlock;
+        private final Executor executor;
+        private final int blocksInProgress;
+        private final Deque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+        private long nextBlock;
+        private boolean exhausted;
+
+        BlockIterator(List<DecisionTree> partitions, long firstRow, long endRow) {
+            this.partitions = partitions;
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+            this.endBlock = endRow / ROWS_PER_BLOCK + (endRow % ROWS_PER_BLOCK == 0 ? 0 : 1);
+            this.nextBlock = firstRow / ROWS_PER_BLOCK;
+            if (workers > 1) {
+                executor = getWorkerExecutor();
+                blocksInProgress = workers * 2;
+            } else {
+                executor = Runnable::run;
+                blocksInProgress = 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            startBlocks();
+            return !pendingBlocks.isEmpty();
+        }
+
+        @Override
+        public List<DataBag> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            PendingBlock block = takeBlock();
+            List<DataBag> rows = join(block.rows);
+            if (rows.size() < block.expectedRows) {
+                // the partitions have run out of rows, so every later block would be cut short as well
+                exhausted = true;
+                pendingBlocks.forEach(pending -> pending.rows.cancel(false));
+                pendingBlocks.clear();
+            }
+            return rows;
+        }
+
+        private void startBlocks() {
+            while (!exhausted && pendingBlocks.size() < blocksInProgress && nextBlock < endBlock) {
+                long block = nextBlock++;
+                long blockStart = block * ROWS_PER_BLOCK;
+                // only the first block can start before the shard, so its rows are dropped before blocks are merged
+                int skippedRows = (int) Math.max(0, firstRow - blockStart);
+                int blockEnd = (int) Math.min(ROWS_PER_BLOCK, endRow - blockStart);
+                pendingBlocks.addLast(new PendingBlock(
+                    blockEnd - skippedRows,
+                    CompletableFuture.supplyAsync(
+                        () -> generateBlock(partitions, block, skippedRows, blockEnd),
+                        executor)));
+            }
+        }
+
+        private PendingBlock takeBlock() {
+            if (rowOrdering == RowOrdering.ORDERED) {
+                return pendingBlocks.removeFirst();
+            }
+
+            CompletableFuture.anyOf(pendingBlocks.stream()
+                .map(pending -> pending.rows)
+                .toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null)
+                .join();
+            PendingBlock completed = pendingBlocks.stream()
+                .filter(pending -> pending.rows.isDone())
+                .findFirst()
+                .get();
+            pendingBlocks.remove(completed);
+            return completed;
+        }
+    }
+
+    private static class PendingBlock {
+        private final int expectedRows;
+        private final CompletableFuture<List<DataBag>> rows;
+
+        PendingBlock(int expectedRows, CompletableFuture<List<DataBag>> rows) {
+            this.expectedRows = expectedRows;
+            this.rows = rows;
+        }
+    }
+}
@@ -27,17 +27,26 @@ import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Reports the rate at which rows are emitted. Several datasets may be generated at the same time (e.g. violations),
+ * so the counts are shared by every generation that starts before {@link #endGeneration()} and are safe to update
+ * from any thread.
+ */
 public class VelocityMonitor extends AbstractDataGeneratorMonitor {
     private static final BigDecimal millisecondsInSecond = BigDecimal.valueOf(1_000);
     private static final BigDecimal nanoSecondsInMillisecond = BigDecimal.valueOf(1_000_000);
 
     private ZonedDateTime startedGenerating;
-    private long rowsSinceLastSample;
-    private BigInteger rowsEmitted;
+    private final AtomicLong rowsSinceLastSample = new AtomicLong();
+    private final AtomicLong rowsEmitted = new AtomicLong();
     private Timer timer;
     private DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
     private long previousVelocity = 0;
+    private final AtomicLong outputBufferFullCount = new AtomicLong();
+    private final AtomicLong outputBufferFullNanos = new AtomicLong();
 
     @Inject
     public VelocityMonitor(PrintWriter writer) {
@@ -45,10 +54,15 @@ public class VelocityMonitor extends AbstractDataGeneratorMonitor {
     }
 
     @Override
-    public void generationStarting() {
+    public synchronized void generationStarting() {
+        if (timer != null) {
+            // already reporting on a generation that has not ended, so this one adds to the same counts
+            return;
+        }
+
         startedGenerating = ZonedDateTime.now();
-        rowsSinceLastSample = 0;
-        rowsEmitted = BigInteger.ZERO;
+        rowsSinceLastSample.set(0);
+        rowsEmitted.set(0);
 
         println("Generation started at: " + timeFormatter.format(startedGenerating) + "\n");
         println("Number of rows | Velocity (rows/sec) | Velocity trend");
@@ -58,21 +72,27 @@ public class VelocityMonitor extends AbstractDataGeneratorMonitor {
         timer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                reportVelocity(rowsSinceLastSample);
-                rowsSinceLastSample = 0;
+                reportVelocity(rowsSinceLastSample.getAndSet(0));
             }
         }, 1000L, 1000L);
     }
     
     @Override
     public void rowEmitted(GeneratedObject item) {
-        rowsSinceLastSample++;
-        rowsEmitted = rowsEmitted.add(BigInteger.ONE);
+        rowsSinceLastSample.incrementAndGet();
+        rowsEmitted.incrementAndGet();
+    }
+
+    @Override
+    public void outputBufferFull(long nanosWaited) {
+        outputBufferFullCount.incrementAndGet();
+        outputBufferFullNanos.addAndGet(nanosWaited);
     }
 
     @Override
-    public void endGeneration() {
+    public synchronized void endGeneration() {
         timer.cancel();
+        timer = null;
 
         ZonedDateTime finished = ZonedDateTime.now();
         Duration totalDuration = Duration.between(startedGenerating, finished);
@@ -89,14 +109,21 @@ public class VelocityMonitor extends AbstractDataGeneratorMonitor {
         BigInteger averageRowsPerSecond = calculateRowsPerSecond(totalMilliseconds);
 
         println(
-            "%-14s | %-19d | Finished",
-            rowsEmitted.toString(),
+            "%-14d | %-19d | Finished",
+            rowsEmitted.get(),
             averageRowsPerSecond);
 
         println(
             "\nGeneration finished at: %s",
             timeFormatter.format(finished));
 
+        if (outputBufferFullCount.get() > 0) {
+            println(
+                "Generation waited %d times for output to be written, %d ms in total",
+                outputBufferFullCount.get(),
+                TimeUnit.NANOSECONDS.toMillis(outputBufferFullNanos.get()));
+        }
+
         super.endGeneration();
     }
 
@@ -104,20 +131,20 @@ public class VelocityMonitor extends AbstractDataGeneratorMonitor {
         if (BigDecimal.ZERO.compareTo(totalMilliseconds) != 0 ) {
             //Work out the average velocity for the generator as a whole by using the formula
             // (<rowsEmitted>/<totalMilliseconds>)*1000 = <rowsEmitted>/second
-            return new BigDecimal(rowsEmitted)
+            return BigDecimal.valueOf(rowsEmitted.get())
                 .setScale(2, RoundingMode.UNNECESSARY)
                 .divide(totalMilliseconds, RoundingMode.HALF_UP)
                 .multiply(millisecondsInSecond).toBigInteger();
         } else {
-            return new BigDecimal(rowsEmitted).toBigInteger();
+            return BigInteger.valueOf(rowsEmitted.get());
         }
     }
 
     private void reportVelocity(long rowsSinceLastSample) {
         String trend = rowsSinceLastSample > previousVelocity ? "+" : "-";
         println(
-            "%-14s | %-19d | %s",
-            rowsEmitted.toString(),
+            "%-14d | %-19d | %s",
+            rowsEmitted.get(),
             rowsSinceLastSample,
             trend);
         previousVelocity = rowsSinceLastSample;
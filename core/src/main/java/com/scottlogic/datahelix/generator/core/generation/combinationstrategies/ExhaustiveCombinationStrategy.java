@@ -16,18 +16,61 @@
 
 package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
 
+import com.scottlogic.datahelix.generator.common.util.BufferedStream;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator.flatMap;
 
+/**
+ * Produces every combination of the given data bag sequences, with the last sequence varying fastest.
+ * <p>
+ * The inner sequences are materialised once, so that each combination for an outer data bag can be addressed by its
+ * position in a mixed-radix index space rather than by re-evaluating the inner sequences for every outer data bag.
+ * Contiguous ranges of that index space are merged on worker threads when more than one thread is configured.
+ * Inner sequences too large to hold in memory are combined by re-evaluating them, as before.
+ */
 public class ExhaustiveCombinationStrategy implements CombinationStrategy {
+    static final int MAX_MATERIALISED_BAGS = 10_000;
+    static final int COMBINATIONS_PER_RANGE = 1_024;
+
+    private final int threads;
+    private ExecutorService executor;
+
+    public ExhaustiveCombinationStrategy() {
+        this(1);
+    }
+
+    public ExhaustiveCombinationStrategy(int threads) {
+        this.threads = threads;
+    }
+
     @Override
     public Stream<DataBag> permute(Stream<Supplier<Stream<DataBag>>> dataBagSequences) {
-        return flatten(dataBagSequences.iterator()).get();
+        List<Supplier<Stream<DataBag>>> sequences = dataBagSequences.collect(Collectors.toList());
+        if (sequences.size() == 1) {
+            return sequences.get(0).get();
+        }
+
+        Optional<IndexSpace> innerCombinations = IndexSpace.materialise(sequences.subList(1, sequences.size()));
+        if (!innerCombinations.isPresent()) {
+            return flatten(sequences.iterator()).get();
+        }
+
+        IndexSpace indexSpace = innerCombinations.get();
+        if (indexSpace.size == 0) {
+            return Stream.empty();
+        }
+
+        return flatMap(
+            sequences.get(0).get(),
+            outerBag -> combine(outerBag, indexSpace));
     }
 
     public Supplier<Stream<DataBag>> flatten(Iterator<Supplier<Stream<DataBag>>> remainingBags) {
@@ -47,4 +90,95 @@ public class ExhaustiveCombinationStrategy implements CombinationStrategy {
                         DataBag.merge(currentBag, subBag)));
 
     }
+
+    private Stream<DataBag> combine(DataBag outerBag, IndexSpace indexSpace) {
+        if (threads <= 1 || indexSpace.size < COMBINATIONS_PER_RANGE * 2L) {
+            return combine(outerBag, indexSpace, 0, indexSpace.size);
+        }
+
+        Iterator<Supplier<Stream<DataBag>>> ranges = LongStream
+            .iterate(0, start -> start + COMBINATIONS_PER_RANGE)
+            .limit((indexSpace.size + COMBINATIONS_PER_RANGE - 1) / COMBINATIONS_PER_RANGE)
+            .<Supplier<Stream<DataBag>>>mapToObj(start -> () -> combine(
+                outerBag,
+                indexSpace,
+                start,
+                Math.min(start + COMBINATIONS_PER_RANGE, indexSpace.size)))
+            .iterator();
+
+        return BufferedStream.concatAsync(ranges, getExecutor(), threads * 2);
+    }
+
+    private static Stream<DataBag> combine(DataBag outerBag, IndexSpace indexSpace, long start, long end) {
+        return LongStream.range(start, end).mapToObj(index -> indexSpace.merge(outerBag, index));
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = BufferedStream.newDaemonThreadPool(threads, "exhaustive-combiner");
+        }
+        return executor;
+    }
+
+    private static class IndexSpace {
+        private final List<List<DataBag>> sequences;
+        private final long size;
+
+        private IndexSpace(List<List<DataBag>> sequences, long size) {
+            this.sequences = sequences;
+            this.size = size;
+        }
+
+        static Optional<IndexSpace> materialise(List<Supplier<Stream<DataBag>>> suppliers) {
+            List<List<DataBag>> sequences = new ArrayList<>(suppliers.size());
+            long size = 1;
+            for (Supplier<Stream<DataBag>> supplier : suppliers) {
+                Optional<List<DataBag>> sequence = materialise(supplier);
+                if (!sequence.isPresent()) {
+                    return Optional.empty();
+                }
+
+                sequences.add(sequence.get());
+                try {
+                    size = Math.multiplyExact(size, sequence.get().size());
+                } catch (ArithmeticException e) {
+                    return Optional.empty();
+                }
+            }
+
+            return Optional.of(new IndexSpace(sequences, size));
+        }
+
+        private static Optional<List<DataBag>> materialise(Supplier<Stream<DataBag>> supplier) {
+            List<DataBag> bags = new ArrayList<>();
+            try (Stream<DataBag> stream = supplier.get()) {
+                Iterator<DataBag> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    if (bags.size() == MAX_MATERIALISED_BAGS) {
+                        return Optional.empty();
+                    }
+                    bags.add(iterator.next());
+                }
+            }
+            return Optional.of(bags);
+        }
+
+        /**
+         * Merge the outer data bag with the inner data bags at the given index, where the digit for each sequence is
+         * taken in turn from the least significant end, starting with the last sequence.
+         */
+        DataBag merge(DataBag outerBag, long index) {
+            DataBag[] bags = new DataBag[sequences.size() + 1];
+            bags[0] = outerBag;
+
+            long remaining = index;
+            for (int sequenceIndex = sequences.size() - 1; sequenceIndex >= 0; sequenceIndex--) {
+                List<DataBag> sequence = sequences.get(sequenceIndex);
+                bags[sequenceIndex + 1] = sequence.get((int) (remaining % sequence.size()));
+                remaining /= sequence.size();
+            }
+
+            return DataBag.merge(bags);
+        }
+    }
 }
@@ -19,19 +19,39 @@ package com.scottlogic.datahelix.generator.core.generation.databags;
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
 import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.FieldType;
-import com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator;
 
 import java.math.BigDecimal;
 import java.util.*;
 
-
+/**
+ * The values generated for a set of fields.
+ * <p>
+ * Values are held in arrays ordered by {@link Field#getOrdinal()}, so that a value is found by a binary search on the
+ * ordinal and merging data bags is a merge of their arrays, rather than hashing each field into a new map.
+ */
 public class DataBag implements GeneratedObject {
-    public static final DataBag empty = new DataBag(new HashMap<>());
+    public static final DataBag empty = new DataBag(new int[0], new Field[0], new DataBagValue[0]);
 
-    private final Map<Field, DataBagValue> fieldToValue;
+    private final int[] ordinals;
+    private final Field[] fields;
+    private final DataBagValue[] values;
 
     public DataBag(Map<Field, DataBagValue> fieldToValue) {
-        this.fieldToValue = fieldToValue;
+        this.fields = fieldToValue.keySet().stream()
+            .sorted(Comparator.comparingInt(Field::getOrdinal))
+            .toArray(Field[]::new);
+        this.ordinals = Arrays.stream(fields).mapToInt(Field::getOrdinal).toArray();
+        this.values = Arrays.stream(fields).map(fieldToValue::get).toArray(DataBagValue[]::new);
+    }
+
+    private DataBag(int[] ordinals, Field[] fields, DataBagValue[] values) {
+        this.ordinals = ordinals;
+        this.fields = fields;
+        this.values = values;
+    }
+
+    public static DataBag of(Field field, DataBagValue value) {
+        return new DataBag(new int[]{field.getOrdinal()}, new Field[]{field}, new DataBagValue[]{value});
     }
 
     @Override
@@ -64,11 +84,12 @@ public class DataBag implements GeneratedObject {
     }
 
     public DataBagValue getDataBagValue(Field field) {
-        if (!fieldToValue.containsKey(field)) {
+        int index = Arrays.binarySearch(ordinals, field.getOrdinal());
+        if (index < 0) {
             throw new IllegalStateException("DataBag has no value stored for " + field);
         }
 
-        return fieldToValue.get(field);
+        return values[index];
     }
 
     @Override
@@ -76,39 +97,77 @@ public class DataBag implements GeneratedObject {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DataBag generatedObject = (DataBag) o;
-        return Objects.equals(fieldToValue, generatedObject.fieldToValue);
+        return Arrays.equals(ordinals, generatedObject.ordinals) && Arrays.equals(values, generatedObject.values);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(fieldToValue);
+        return 31 * Arrays.hashCode(ordinals) + Arrays.hashCode(values);
     }
 
     public static DataBag merge(DataBag... bags) {
-        Map<Field, DataBagValue> newFieldToValue = new HashMap<>();
+        return bags.length == 0 ? empty : merge(bags, 0, bags.length);
+    }
 
-        FlatMappingSpliterator.flatMap(Arrays.stream(bags)
-            .map(r -> r.fieldToValue.entrySet().stream()),
-            entrySetStream -> entrySetStream)
-            .forEach(entry -> {
-                if (newFieldToValue.containsKey(entry.getKey()))
-                    throw new IllegalArgumentException("Databags can't be merged because they overlap on field " + entry.getKey().getName());
+    private static DataBag merge(DataBag[] bags, int from, int to) {
+        if (to - from == 1) {
+            return bags[from];
+        }
 
-                newFieldToValue.put(entry.getKey(), entry.getValue());
-            });
+        int middle = (from + to) >>> 1;
+        return merge(merge(bags, from, middle), merge(bags, middle, to));
+    }
 
-        return new DataBag(newFieldToValue);
+    private static DataBag merge(DataBag left, DataBag right) {
+        if (left.ordinals.length == 0) {
+            return right;
+        }
+        if (right.ordinals.length == 0) {
+            return left;
+        }
+
+        int size = left.ordinals.length + right.ordinals.length;
+        int[] ordinals = new int[size];
+        Field[] fields = new Field[size];
+        DataBagValue[] values = new DataBagValue[size];
+
+        int leftIndex = 0;
+        int rightIndex = 0;
+        for (int index = 0; index < size; index++) {
+            boolean takeLeft;
+            if (leftIndex == left.ordinals.length) {
+                takeLeft = false;
+            } else if (rightIndex == right.ordinals.length) {
+                takeLeft = true;
+            } else if (left.ordinals[leftIndex] == right.ordinals[rightIndex]) {
+                throw new IllegalArgumentException("Databags can't be merged because they overlap on field " + left.fields[leftIndex].getName());
+            } else {
+                takeLeft = left.ordinals[leftIndex] < right.ordinals[rightIndex];
+            }
+
+            DataBag source = takeLeft ? left : right;
+            int sourceIndex = takeLeft ? leftIndex++ : rightIndex++;
+            ordinals[index] = source.ordinals[sourceIndex];
+            fields[index] = source.fields[sourceIndex];
+            values[index] = source.values[sourceIndex];
+        }
+
+        return new DataBag(ordinals, fields, values);
     }
 
     @Override
     public String toString() {
+        StringJoiner fieldToValue = new StringJoiner(", ", "{", "}");
+        for (int index = 0; index < fields.length; index++) {
+            fieldToValue.add(fields[index] + "=" + values[index]);
+        }
         return "DataBag{" +
             "fieldToValue=" + fieldToValue +
             '}';
     }
 
     public boolean isUnique(){
-        return fieldToValue.keySet().stream()
+        return Arrays.stream(fields)
             .anyMatch(Field::isUnique);
     }
 }
@@ -17,15 +17,24 @@
 package com.scottlogic.datahelix.generator.core.generation.databags;
 
 import com.google.inject.Inject;
+import com.scottlogic.datahelix.generator.common.util.MemoisationCache;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecGroup;
 import com.scottlogic.datahelix.generator.core.fieldspecs.RowSpec;
 import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
 import com.scottlogic.datahelix.generator.core.generation.grouped.FieldSpecGroupValueGenerator;
 import com.scottlogic.datahelix.generator.core.generation.grouped.RowSpecGrouper;
 
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 public class RowSpecDataBagGenerator {
+    // random generation draws many rows from each of a small pool of row specs, so recent ones keep their groups.
+    // Shared by every generator, as each block of random rows has its own generator but draws on the same row specs.
+    private static final int MAX_CACHED_ROW_SPECS = 1_024;
+    private static final MemoisationCache<RowSpec, Set<FieldSpecGroup>> rowSpecGroups =
+        new MemoisationCache<>(MAX_CACHED_ROW_SPECS);
+
     private final FieldSpecGroupValueGenerator generator;
     private final CombinationStrategy combinationStrategy;
 
@@ -39,7 +48,7 @@ public class RowSpecDataBagGenerator {
 
     public Stream<DataBag> createDataBags(RowSpec rowSpec) {
         Stream<Supplier<Stream<DataBag>>> dataBagsForGroups =
-            RowSpecGrouper.createGroups(rowSpec).stream()
+            rowSpecGroups.get(rowSpec, RowSpecGrouper::createGroups).stream()
                 .map(group -> () -> generator.generate(group));
 
         return combinationStrategy.permute(dataBagsForGroups);
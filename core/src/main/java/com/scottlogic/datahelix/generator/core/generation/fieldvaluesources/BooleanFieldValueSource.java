@@ -45,6 +45,6 @@ public class BooleanFieldValueSource implements FieldValueSource<Boolean>
     }
 
     private boolean notInBlacklist(Boolean b) {
-        return blacklist.stream().noneMatch(x -> x.equals(b));
+        return !blacklist.contains(b);
     }
 }
@@ -19,28 +19,34 @@ package com.scottlogic.datahelix.generator.core.generation.fieldvaluesources;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictions;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-
-import static com.scottlogic.datahelix.generator.common.SetUtils.stream;
+import java.util.stream.StreamSupport;
 
 public class LinearFieldValueSource<T extends Comparable<T>> implements FieldValueSource {
     private final LinearRestrictions<T> restrictions;
-    private final Set<T> blacklist;
+    private final NavigableSet<T> blacklist;
 
     public LinearFieldValueSource(LinearRestrictions<T> restrictions, Set<T> blacklist) {
         this.restrictions = restrictions;
-        this.blacklist = blacklist.stream()
+        this.blacklist = inRange(restrictions, blacklist.stream()
             .map(i -> restrictions.getGranularity().trimToGranularity(i))
-            .collect(Collectors.toSet());
+            .collect(Collectors.toCollection(TreeSet::new)));
+    }
+
+    // only the blacklisted values that could be generated need to be checked
+    private static <T extends Comparable<T>> NavigableSet<T> inRange(LinearRestrictions<T> restrictions, NavigableSet<T> blacklist) {
+        if (blacklist.isEmpty()) {
+            return Collections.emptyNavigableSet();
+        }
+        return new TreeSet<>(blacklist.subSet(restrictions.getMin(), true, restrictions.getMax(), true));
     }
 
     @Override
     public Stream<T> generateAllValues() {
-        return stream(new LinearIterator<>(restrictions))
-            .filter(this::notInBlacklist);
+        Stream<T> values = StreamSupport.stream(new LinearSpliterator<>(restrictions), false);
+        return blacklist.isEmpty() ? values : values.filter(this::notInBlacklist);
     }
 
     @Override
@@ -60,9 +66,9 @@ public class LinearFieldValueSource<T extends Comparable<T>> implements FieldVal
             .filter(this::notInBlacklist);
     }
 
-    // we call this instead of .contains because .contains doesn't treat 2 and 2.0 as equal
+    // the blacklist is ordered by compareTo, so that contains treats 2 and 2.0 as equal
     private boolean notInBlacklist(T t) {
-        return blacklist.stream().noneMatch(x->x.compareTo(t)==0);
+        return !blacklist.contains(t);
     }
 
     @Override
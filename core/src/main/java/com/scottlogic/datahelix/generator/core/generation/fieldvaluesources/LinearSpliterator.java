@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.fieldvaluesources;
+
+import com.scottlogic.datahelix.generator.common.profile.Granularity;
+import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictions;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Iterates through every value of a linear range at its granularity, in order.
+ * <p>
+ * The range can be split arithmetically, by stepping halfway through it, so that parallel streams over a large range
+ * can share it between threads. Each part continues to step from its own start, so the parts together produce the
+ * same values as iterating through the whole range.
+ */
+public class LinearSpliterator<T extends Comparable<T>> implements Spliterator<T> {
+    private static final long MIN_STEPS_TO_SPLIT = 1024;
+
+    private final Granularity<T> granularity;
+    private final T end;
+    private final boolean endInclusive;
+    private T next;
+    private T current;
+
+    public LinearSpliterator(LinearRestrictions<T> linearRestrictions) {
+        this(linearRestrictions.getGranularity(), linearRestrictions.getMin(), linearRestrictions.getMax(), true);
+    }
+
+    private LinearSpliterator(Granularity<T> granularity, T start, T end, boolean endInclusive) {
+        this.granularity = granularity;
+        this.end = end;
+        this.endInclusive = endInclusive;
+        next = start;
+        current = start;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (!hasNext()) {
+            return false;
+        }
+
+        current = next;
+        next = granularity.getNext(next);
+        action.accept(current);
+        return true;
+    }
+
+    private boolean hasNext() {
+        int comparedToEnd = end.compareTo(next);
+        return (endInclusive ? comparedToEnd >= 0 : comparedToEnd > 0)
+            && next.compareTo(current) >= 0;
+    }
+
+    /**
+     * Split off the first half of the remaining range, provided it is long enough to be worth sharing and starts at
+     * the correct scale, so that stepping from it in one go lands on a value that stepping one at a time would produce.
+     */
+    @Override
+    public Spliterator<T> trySplit() {
+        long steps = estimateSize();
+        if (steps < MIN_STEPS_TO_SPLIT || !hasNext() || !granularity.isCorrectScale(next)) {
+            return null;
+        }
+
+        T midpoint = granularity.getNext(next, (int) Math.min(steps / 2, Integer.MAX_VALUE));
+        if (midpoint.compareTo(next) <= 0 || midpoint.compareTo(end) >= 0) {
+            return null;
+        }
+
+        Spliterator<T> prefix = new LinearSpliterator<>(granularity, next, midpoint, false);
+        next = midpoint;
+        current = midpoint;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        long steps = granularity.getStepsBetween(next, end);
+        return endInclusive && steps < Long.MAX_VALUE ? steps + 1 : steps;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
@@ -20,6 +20,7 @@ package com.scottlogic.datahelix.generator.core.generation.grouped;
 import com.google.inject.Inject;
 import com.scottlogic.datahelix.generator.common.ValidationException;
 import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.util.MemoisationCache;
 import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecGroup;
@@ -36,9 +37,15 @@ import java.util.stream.Stream;
 import static com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator.flatMap;
 
 public class FieldSpecGroupValueGenerator {
+    // random generation produces each row from a group of a cached row spec, so recent groups keep their plans.
+    // Shared by every generator, as each block of random rows has its own generator but draws on the same groups.
+    private static final int MAX_CACHED_PLANS = 1_024;
+    private static final MemoisationCache<FieldSpecGroup, GroupPlan> plans = new MemoisationCache<>(MAX_CACHED_PLANS);
+
     private final CombinationStrategyType combinationStrategy;
     private final FieldSpecValueGenerator underlyingGenerator;
-    private final FieldSpecMerger fieldSpecMerger = new FieldSpecMerger();
+    // the specs merged here are mostly derived from generated values, so are rarely merged twice
+    private final FieldSpecMerger fieldSpecMerger = new FieldSpecMerger(0);
 
     @Inject
     public FieldSpecGroupValueGenerator(FieldSpecValueGenerator underlyingGenerator, CombinationStrategyType combinationStrategy) {
@@ -46,22 +53,27 @@ public class FieldSpecGroupValueGenerator {
         this.combinationStrategy = combinationStrategy;
     }
 
+    /**
+     * Generate values for the fields of the group. The plan for generating them is kept for the same group instance,
+     * so that generating a row from a group that has been seen before only needs to draw its values.
+     */
     public Stream<DataBag> generate(FieldSpecGroup group) {
-        Field first = getFirst(group);
-
-        if (group.fieldSpecs().size() == 1) {
-            return underlyingGenerator.generate(first, group.fieldSpecs().get(first))
-                .map(val -> toDataBag(first, val));
-        }
+        return generate(plans.get(group, this::plan));
+    }
 
-        FieldSpec firstSpec = updateFirstSpecFromRelations(first, group);
+    private Stream<DataBag> generate(GroupPlan plan) {
+        Field first = plan.first;
 
-        Stream<DataBag> firstDataBagValues = underlyingGenerator.generate(first, firstSpec)
+        Stream<DataBag> firstDataBagValues = underlyingGenerator.generate(first, plan.firstSpec)
             .map(value -> toDataBag(first, value));
 
+        if (plan.remaining == null) {
+            return firstDataBagValues;
+        }
+
         return flatMap(
             firstDataBagValues,
-            dataBag -> generateRemainingData(first, dataBag, removeSpecFromGroup(first, group)));
+            dataBag -> generateRemainingData(first, dataBag, plan.remaining));
     }
 
     private Field getFirst(FieldSpecGroup keySet) {
@@ -113,7 +125,7 @@ public class FieldSpecGroupValueGenerator {
     private Stream<DataBag> generateRemainingData(Field generatedField, DataBag dataBag, FieldSpecGroup group) {
         FieldSpecGroup newGroup = updateRelatedFieldSpecs(generatedField, dataBag.getDataBagValue(generatedField), group);
 
-        Stream<DataBag> dataBagStream = generate(newGroup)
+        Stream<DataBag> dataBagStream = generate(plan(newGroup))
             .map(otherData -> DataBag.merge(dataBag, otherData));
 
         return applyCombinationStrategy(dataBagStream);
@@ -192,9 +204,7 @@ public class FieldSpecGroupValueGenerator {
     }
 
     private DataBag toDataBag(Field field, DataBagValue value) {
-        Map<Field, DataBagValue> map = new HashMap<>();
-        map.put(field, value);
-        return new DataBag(map);
+        return DataBag.of(field, value);
     }
 
     private FieldSpecGroup removeSpecFromGroup(Field first, FieldSpecGroup group) {
@@ -202,4 +212,28 @@ public class FieldSpecGroupValueGenerator {
         newFieldSpecs.remove(first);
         return new FieldSpecGroup(newFieldSpecs, group.relations());
     }
+
+    private GroupPlan plan(FieldSpecGroup group) {
+        Field first = getFirst(group);
+
+        if (group.fieldSpecs().size() == 1) {
+            return new GroupPlan(first, group.fieldSpecs().get(first), null);
+        }
+        return new GroupPlan(first, updateFirstSpecFromRelations(first, group), removeSpecFromGroup(first, group));
+    }
+
+    /**
+     * The field of a group to generate first, and the field specs to generate it and the rest of the group from
+     */
+    private static class GroupPlan {
+        private final Field first;
+        private final FieldSpec firstSpec;
+        private final FieldSpecGroup remaining;
+
+        GroupPlan(Field first, FieldSpec firstSpec, FieldSpecGroup remaining) {
+            this.first = first;
+            this.firstSpec = firstSpec;
+            this.remaining = remaining;
+        }
+    }
 }
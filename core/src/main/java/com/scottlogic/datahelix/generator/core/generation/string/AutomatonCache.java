@@ -0,0 +1,273 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A thread safe cache of the automata created from regular expressions, which evicts the least recently used automata
+ * once it holds more than the given number of automata or of states in total.
+ * <p>
+ * When given a directory the cache also stores each automaton it creates in a file there, named after the file format
+ * version and a hash of the regular expression, and reads it back on a later miss, so that later runs do not need to
+ * create it again. The directory is given by the user, so only the classes an automaton is made of are read from its
+ * files. Any automaton that cannot be stored or read is simply created again.
+ */
+public final class AutomatonCache {
+    private static final String FILE_EXTENSION = ".automaton";
+
+    // changed whenever the content of the files changes, so that files written by other versions are never read
+    private static final int FILE_FORMAT_VERSION = 1;
+
+    private final String name;
+    private final int maxAutomata;
+    private final long maxStates;
+    private final Map<String, Entry> automata = new LinkedHashMap<>(16, 0.75f, true);
+    private long states;
+    private volatile Path directory;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param name        Distinguishes the files of this cache from those of other caches in the same directory
+     * @param maxAutomata The number of automata to hold in memory
+     * @param maxStates   The number of states to hold in memory across all of the automata
+     */
+    public AutomatonCache(String name, int maxAutomata, long maxStates) {
+        if (maxAutomata < 1 || maxStates < 1) {
+            throw new IllegalArgumentException("Automaton caches require a positive maximum size");
+        }
+
+        this.name = name;
+        this.maxAutomata = maxAutomata;
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Store the automata in the given directory from now on, or stop storing them if it is null
+     */
+    public void persistIn(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the automaton for the given regular expression, creating it if it is neither held in memory nor stored in
+     * the cache directory. Automata are shared between callers, so must not be modified.
+     */
+    public Automaton get(String regex, Function<String, Automaton> create) {
+        Automaton cached = getFromMemory(regex);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        Path file = fileFor(regex);
+        Automaton automaton = file == null ? null : load(file, regex);
+        if (automaton != null) {
+            loads.incrementAndGet();
+        } else {
+            automaton = create.apply(regex);
+            if (file != null) {
+                store(file, regex, automaton);
+            }
+        }
+
+        put(regex, automaton);
+        return automaton;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of misses that were read from the cache directory rather than created
+     */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public synchronized int size() {
+        return automata.size();
+    }
+
+    private synchronized Automaton getFromMemory(String regex) {
+        Entry entry = automata.get(regex);
+        return entry == null ? null : entry.automaton;
+    }
+
+    private synchronized void put(String regex, Automaton automaton) {
+        Entry previous = automata.put(regex, new Entry(automaton));
+        if (previous != null) {
+            states -= previous.states;
+        }
+        states += automata.get(regex).states;
+
+        // the automaton just added is the most recently used, so it is only evicted when it exceeds the limits alone
+        Iterator<Entry> leastRecentlyUsed = automata.values().iterator();
+        while ((automata.size() > maxAutomata || states > maxStates) && leastRecentlyUsed.hasNext()) {
+            states -= leastRecentlyUsed.next().states;
+            leastRecentlyUsed.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private Path fileFor(String regex) {
+        Path directory = this.directory;
+        return directory == null ? null : directory.resolve(
+            name + "-v" + FILE_FORMAT_VERSION + "-" + sha256(regex) + FILE_EXTENSION);
+    }
+
+    private static Automaton load(Path file, String regex) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (ObjectInputStream input = new AutomatonInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            // the regex is stored with the automaton in case two regexes share a hash
+            return regex.equals(input.readObject())
+                ? (Automaton) input.readObject()
+                : null;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    private static void store(Path file, String regex, Automaton automaton) {
+        Path temporaryFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeObject(regex);
+                output.writeObject(automaton);
+            }
+            // moved into place whole, so that concurrent runs never read a partly written automaton
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the automaton will be created again next time
+            deleteQuietly(temporaryFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // nothing more can be done with an unwritable cache directory
+        }
+    }
+
+    private static String sha256(String regex) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(regex.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+            "%s automata: %d held (%d states), %d hits, %d misses (%d read from disk), %d evicted",
+            name, automata.size(), states, hits.get(), misses.get(), loads.get(), evictions.get());
+    }
+
+    /**
+     * Reads only strings, the sets of transitions and primitive arrays an automaton holds and the classes of the
+     * automaton library, refusing any other class before it is loaded or any of its code is run
+     */
+    private static class AutomatonInputStream extends ObjectInputStream {
+        private static final String AUTOMATON_PACKAGE = Automaton.class.getPackage().getName() + ".";
+        private static final Set<String> PERMITTED_CLASSES = new HashSet<>(Arrays.asList(
+            String.class.getName(),
+            HashSet.class.getName()));
+
+        AutomatonInputStream(InputStream input) throws IOException {
+            super(input);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            if (!isPermitted(description.getName())) {
+                throw new InvalidClassException(description.getName(), "not part of a stored automaton");
+            }
+            return super.resolveClass(description);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+            throw new InvalidClassException("proxy classes are not part of a stored automaton");
+        }
+
+        private static boolean isPermitted(String className) {
+            return className.startsWith(AUTOMATON_PACKAGE)
+                || PERMITTED_CLASSES.contains(className)
+                || isPrimitiveArray(className);
+        }
+
+        // primitive array classes are named with a bracket per dimension followed by a single letter, e.g. [[C
+        private static boolean isPrimitiveArray(String className) {
+            int dimensions = 0;
+            while (dimensions < className.length() && className.charAt(dimensions) == '[') {
+                dimensions++;
+            }
+            return dimensions > 0 && className.length() == dimensions + 1;
+        }
+    }
+
+    private static class Entry {
+        private final Automaton automaton;
+        private final long states;
+
+        Entry(Automaton automaton) {
+            this.automaton = automaton;
+            this.states = automaton.getNumberOfStates();
+        }
+    }
+}
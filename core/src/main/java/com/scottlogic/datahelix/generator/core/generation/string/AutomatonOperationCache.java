@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import com.scottlogic.datahelix.generator.common.util.MemoisationCache;
+import dk.brics.automaton.Automaton;
+
+import java.util.function.Supplier;
+
+/**
+ * A thread safe cache of the automata produced by intersecting, joining and complementing other automata, so that
+ * each combination is only computed once while it is in use. Results are keyed on the identities of their operands,
+ * which is sufficient because automata are shared rather than copied once created, including the results held here.
+ * The least recently used results are evicted once more than the given number are held.
+ */
+public final class AutomatonOperationCache {
+    private enum Operation {
+        INTERSECTION(true),
+        UNION(true),
+        COMPLEMENT(false);
+
+        private final boolean commutative;
+
+        Operation(boolean commutative) {
+            this.commutative = commutative;
+        }
+    }
+
+    private final MemoisationCache<Key, Automaton> results;
+
+    public AutomatonOperationCache(int maxResults) {
+        if (maxResults < 1) {
+            throw new IllegalArgumentException("Automaton operation caches require a positive maximum size");
+        }
+
+        this.results = new MemoisationCache<>(maxResults);
+    }
+
+    public Automaton intersection(Automaton left, Automaton right) {
+        return get(new Key(Operation.INTERSECTION, left, right), () -> left.intersection(right));
+    }
+
+    public Automaton union(Automaton left, Automaton right) {
+        return get(new Key(Operation.UNION, left, right), () -> left.union(right));
+    }
+
+    /**
+     * @return The strings of the universe that the automaton does not accept
+     */
+    public Automaton complement(Automaton automaton, Automaton universe) {
+        return get(
+            new Key(Operation.COMPLEMENT, automaton, universe),
+            () -> automaton.clone().complement().intersection(universe));
+    }
+
+    public long getHitCount() {
+        return results.getHitCount();
+    }
+
+    public long getMissCount() {
+        return results.getMissCount();
+    }
+
+    private Automaton get(Key key, Supplier<Automaton> operation) {
+        return results.get(key, k -> operation.get());
+    }
+
+    @Override
+    public String toString() {
+        return "automaton operations: " + results;
+    }
+
+    private static class Key {
+        private final Operation operation;
+        private final Automaton left;
+        private final Automaton right;
+
+        Key(Operation operation, Automaton left, Automaton right) {
+            this.operation = operation;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return operation == that.operation
+                && ((left == that.left && right == that.right)
+                    || (operation.commutative && left == that.right && right == that.left));
+        }
+
+        @Override
+        public int hashCode() {
+            // symmetric in the operands, so that either order of a commutative operation finds the same result
+            return 31 * operation.hashCode() + System.identityHashCode(left) + System.identityHashCode(right);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.SetUtils;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Removes the strings of a blacklist from the values of another generator, by looking each value up in the blacklist
+ * rather than building an automaton that excludes all of them. Blacklisted values are skipped when generating all
+ * values and drawn again when generating random values.
+ */
+public class BlacklistingStringGenerator implements StringGenerator {
+    private final StringGenerator innerGenerator;
+    private final Set<String> blacklist;
+
+    public BlacklistingStringGenerator(StringGenerator innerGenerator, Set<String> blacklist) {
+        this.innerGenerator = innerGenerator;
+        this.blacklist = blacklist;
+    }
+
+    @Override
+    public Stream<String> generateAllValues() {
+        return innerGenerator.generateAllValues().filter(this::notInBlacklist);
+    }
+
+    @Override
+    public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        return innerGenerator.generateRandomValues(randomNumberGenerator).filter(this::notInBlacklist);
+    }
+
+    @Override
+    public Stream<String> generateInterestingValues() {
+        return innerGenerator.generateInterestingValues().filter(this::notInBlacklist);
+    }
+
+    @Override
+    public boolean matches(String string) {
+        return notInBlacklist(string) && innerGenerator.matches(string);
+    }
+
+    @Override
+    public StringGenerator intersect(StringGenerator stringGenerator) {
+        if (stringGenerator instanceof BlacklistingStringGenerator) {
+            BlacklistingStringGenerator other = (BlacklistingStringGenerator) stringGenerator;
+            return new BlacklistingStringGenerator(
+                innerGenerator.intersect(other.innerGenerator),
+                SetUtils.union(blacklist, other.blacklist));
+        }
+
+        return new BlacklistingStringGenerator(innerGenerator.intersect(stringGenerator), blacklist);
+    }
+
+    @Override
+    public boolean validate(String string) {
+        return notInBlacklist(string) && innerGenerator.validate(string);
+    }
+
+    private boolean notInBlacklist(String string) {
+        return !blacklist.contains(string);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s NOT-IN %d strings", innerGenerator, blacklist.size());
+    }
+}
@@ -19,6 +19,7 @@ package com.scottlogic.datahelix.generator.core.generation.string.generators;
 import com.github.javafaker.Faker;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 import com.scottlogic.datahelix.generator.common.util.OrderedRandom;
+import com.scottlogic.datahelix.generator.common.util.RandomNumberGeneratorRandom;
 
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -27,13 +28,12 @@ public class FakerGenerator implements StringGenerator {
 
     private final StringGenerator underlyingRegexGenerator;
     private final Function<Faker, String> fakerFunction;
-    private final Faker randomFaker;
+    private volatile RandomFaker lastRandomFaker;
     private final Faker orderedFaker;
 
     public FakerGenerator(StringGenerator underlyingRegexGenerator, Function<Faker, String> fakerFunction) {
         this.underlyingRegexGenerator = underlyingRegexGenerator;
         this.fakerFunction = fakerFunction;
-        randomFaker = new Faker();
         orderedFaker = new Faker(new OrderedRandom());
     }
 
@@ -72,7 +72,28 @@ public class FakerGenerator implements StringGenerator {
 
     @Override
     public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
-        return Stream.generate(() -> fakerFunction.apply(randomFaker))
+        // creating a faker is expensive, so the last one is kept for the generator that is usually asked for again
+        RandomFaker randomFaker = lastRandomFaker;
+        if (randomFaker == null || randomFaker.randomNumberGenerator != randomNumberGenerator) {
+            randomFaker = new RandomFaker(randomNumberGenerator);
+            lastRandomFaker = randomFaker;
+        }
+
+        Faker faker = randomFaker.faker;
+        return Stream.generate(() -> fakerFunction.apply(faker))
             .filter(underlyingRegexGenerator::validate);
     }
+
+    /**
+     * A faker drawing its values from the given generator
+     */
+    private static final class RandomFaker {
+        private final RandomNumberGenerator randomNumberGenerator;
+        private final Faker faker;
+
+        RandomFaker(RandomNumberGenerator randomNumberGenerator) {
+            this.randomNumberGenerator = randomNumberGenerator;
+            this.faker = new Faker(new RandomNumberGeneratorRandom(randomNumberGenerator));
+        }
+    }
 }
@@ -18,29 +18,43 @@ package com.scottlogic.datahelix.generator.core.generation.string.generators;
 
 import com.scottlogic.datahelix.generator.common.profile.FieldType;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
+import com.scottlogic.datahelix.generator.core.generation.string.AutomatonCache;
+import com.scottlogic.datahelix.generator.core.generation.string.AutomatonOperationCache;
 import com.scottlogic.datahelix.generator.core.generation.string.AutomatonUtils;
-import com.scottlogic.datahelix.generator.core.generation.string.iterators.FiniteStringAutomatonIterator;
+import com.scottlogic.datahelix.generator.core.generation.string.iterators.FiniteStringAutomatonSpliterator;
 import com.scottlogic.datahelix.generator.core.generation.string.factorys.InterestingStringFactory;
 import com.scottlogic.datahelix.generator.core.generation.string.factorys.RandomStringFactory;
 import com.scottlogic.datahelix.generator.core.restrictions.string.StringRestrictions;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 import dk.brics.automaton.Automaton;
 
+import java.nio.file.Path;
 import java.util.*;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class RegexStringGenerator implements StringGenerator {
+    private static final int MAX_CACHED_AUTOMATA = 1_000;
+    private static final long MAX_CACHED_AUTOMATON_STATES = 1_000_000;
+
+    /**
+     * Cache of matching regex automatons, keyed on their regex
+     */
+    private static final AutomatonCache matchingRegexAutomatonCache =
+        new AutomatonCache("matching", MAX_CACHED_AUTOMATA, MAX_CACHED_AUTOMATON_STATES);
+
     /**
-     * Cache of all matching regex automatons, keyed on their regex
+     * Cache of containing regex automatons, keyed on their regex
      */
-    private static final Map<String, Automaton> matchingRegexAutomatonCache = new HashMap<>();
+    private static final AutomatonCache containingRegexAutomatonCache =
+        new AutomatonCache("containing", MAX_CACHED_AUTOMATA, MAX_CACHED_AUTOMATON_STATES);
 
     /**
-     * Cache of all containing regex automatons, keyed on their regex
+     * Cache of the automatons combined from others, so that restrictions merged repeatedly share their automatons
      */
-    private static final Map<String, Automaton> containingRegexAutomatonCache = new HashMap<>();
+    private static final AutomatonOperationCache automatonOperationCache =
+        new AutomatonOperationCache(MAX_CACHED_AUTOMATA);
 
     private static final RegexStringGenerator DEFAULT = (RegexStringGenerator) ((StringRestrictions) FieldSpecFactory.fromType(FieldType.STRING).getRestrictions()).createGenerator();
 
@@ -57,10 +71,8 @@ public class RegexStringGenerator implements StringGenerator {
     }
 
     public RegexStringGenerator(String regexStr, boolean matchFullString) {
-        Map<String, Automaton> cache = matchFullString ? matchingRegexAutomatonCache : containingRegexAutomatonCache;
-        Automaton generatedAutomaton = cache.containsKey(regexStr)
-            ? cache.get(regexStr)
-            : AutomatonUtils.createAutomaton(regexStr, matchFullString, cache);
+        AutomatonCache cache = matchFullString ? matchingRegexAutomatonCache : containingRegexAutomatonCache;
+        Automaton generatedAutomaton = cache.get(regexStr, regex -> AutomatonUtils.createAutomaton(regex, matchFullString));
 
         String prefix = matchFullString ? "" : "*";
         String suffix = matchFullString ? "" : "*";
@@ -68,6 +80,15 @@ public class RegexStringGenerator implements StringGenerator {
         this.automaton = generatedAutomaton;
     }
 
+    /**
+     * Store the automata created from regexes in the given directory, so that later runs can read them instead of
+     * creating them again
+     */
+    public static void persistAutomataIn(Path directory) {
+        matchingRegexAutomatonCache.persistIn(directory);
+        containingRegexAutomatonCache.persistIn(directory);
+    }
+
     private Pattern pattern() {
         if (regexPattern != null) {
             return regexPattern;
@@ -116,7 +137,7 @@ public class RegexStringGenerator implements StringGenerator {
 
         RegexStringGenerator otherRegexGenerator = (RegexStringGenerator) otherGenerator;
         Automaton b = otherRegexGenerator.automaton;
-        Automaton merged = automaton.intersection(b);
+        Automaton merged = automatonOperationCache.intersection(automaton, b);
         if (merged.isEmpty()) {
             return new NoStringsStringGenerator("regex combination was contradictory");
         }
@@ -130,7 +151,7 @@ public class RegexStringGenerator implements StringGenerator {
 
     RegexStringGenerator union(RegexStringGenerator otherGenerator) {
         Automaton b = otherGenerator.automaton;
-        Automaton merged = automaton.union(b);
+        Automaton merged = automatonOperationCache.union(automaton, b);
         String mergedRepresentation = unionRepresentation(
             this.regexRepresentation,
             otherGenerator.regexRepresentation
@@ -141,7 +162,7 @@ public class RegexStringGenerator implements StringGenerator {
     @Override
     public StringGenerator complement() {
         return new RegexStringGenerator(
-            this.automaton.clone().complement().intersection(DEFAULT.automaton),
+            automatonOperationCache.complement(this.automaton, DEFAULT.automaton),
             complementaryRepresentation(this.regexRepresentation));
     }
 
@@ -157,6 +178,13 @@ public class RegexStringGenerator implements StringGenerator {
         return String.format("(%s ∪ %s)", left, right);
     }
 
+    /**
+     * @return whether the generator matches no more than the given number of strings
+     */
+    public boolean matchesAtMost(int count) {
+        return automaton.isFinite() && automaton.getFiniteStrings(count) != null;
+    }
+
     @Override
     public Stream<String> generateInterestingValues() {
         return StreamSupport.stream(interestingStringFactory.generateInterestingValues(automaton).spliterator(), false);
@@ -164,8 +192,7 @@ public class RegexStringGenerator implements StringGenerator {
 
     @Override
     public Stream<String> generateAllValues() {
-        Iterator<String> iterator = new FiniteStringAutomatonIterator(automaton);
-        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.SORTED), false);
+        return StreamSupport.stream(new FiniteStringAutomatonSpliterator(automaton), false);
     }
 
     @Override
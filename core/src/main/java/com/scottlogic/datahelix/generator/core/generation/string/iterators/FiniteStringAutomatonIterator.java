@@ -35,6 +35,18 @@ public class FiniteStringAutomatonIterator implements Iterator<String> {
         nextValue = null;
     }
 
+    /**
+     * Iterate through the strings that start with the given prefix and continue through the given transitions,
+     * including the prefix itself when it is accepted.
+     */
+    FiniteStringAutomatonIterator(String prefix, boolean acceptPrefix, Deque<TransitionIterator> transitions) {
+        stateTree = new ArrayDeque<>();
+        atAcceptedRootState = acceptPrefix;
+        stateTree.push(transitions);
+        stringBuilder = new StringBuilder(prefix);
+        nextValue = null;
+    }
+
     private Deque<TransitionIterator> getTransitionsStack(State state) {
         Deque<TransitionIterator> transitions = new ArrayDeque<>();
         state
@@ -48,7 +60,7 @@ public class FiniteStringAutomatonIterator implements Iterator<String> {
     public boolean hasNext() {
         if (atAcceptedRootState) {
             atAcceptedRootState = false;
-            nextValue = "";
+            nextValue = stringBuilder.toString();
         }
 
         while (true) {
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string.iterators;
+
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.State;
+import dk.brics.automaton.Transition;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Enumerates the strings of a finite automaton in order, as {@link FiniteStringAutomatonIterator} does.
+ * <p>
+ * Before enumeration starts the strings can be split at a transition boundary: the characters leading out of the
+ * current state are divided so that each part holds roughly half of the strings, counted through the automaton.
+ * While only one character leads out of the state it is taken as a common prefix, so that fixed prefixes such as
+ * those in identifier formats still allow the strings after them to be split.
+ */
+public class FiniteStringAutomatonSpliterator implements Spliterator<String> {
+    private static final long MIN_STRINGS_TO_SPLIT = 1024;
+
+    private final StringCounter stringCounter;
+    private String prefix;
+    private boolean acceptPrefix;
+    private List<CharacterRange> ranges;
+    private FiniteStringAutomatonIterator iterator;
+    private long estimatedSize;
+
+    public FiniteStringAutomatonSpliterator(Automaton automaton) {
+        this(new StringCounter(), "", automaton.getInitialState().isAccept(), rangesFrom(automaton.getInitialState()));
+    }
+
+    private FiniteStringAutomatonSpliterator(StringCounter stringCounter, String prefix, boolean acceptPrefix, List<CharacterRange> ranges) {
+        this.stringCounter = stringCounter;
+        this.prefix = prefix;
+        this.acceptPrefix = acceptPrefix;
+        this.ranges = ranges;
+        this.estimatedSize = countStrings();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (iterator == null) {
+            Deque<TransitionIterator> transitions = new ArrayDeque<>();
+            ranges.forEach(range -> transitions.addLast(new TransitionIterator(range.transition, range.min, range.max)));
+            iterator = new FiniteStringAutomatonIterator(prefix, acceptPrefix, transitions);
+        }
+
+        if (!iterator.hasNext()) {
+            estimatedSize = 0;
+            return false;
+        }
+
+        action.accept(iterator.next());
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (iterator != null) {
+            return null;
+        }
+
+        takeCommonPrefix();
+        if (estimatedSize < MIN_STRINGS_TO_SPLIT || countCharacters(ranges) < 2) {
+            return null;
+        }
+
+        List<CharacterRange> prefixRanges = new ArrayList<>();
+        List<CharacterRange> suffixRanges = new ArrayList<>();
+        long half = estimatedSize / 2;
+        long stringsInPrefix = acceptPrefix ? 1 : 0;
+        for (CharacterRange range : ranges) {
+            if (!suffixRanges.isEmpty() || stringsInPrefix >= half) {
+                suffixRanges.add(range);
+                continue;
+            }
+
+            long stringsPerCharacter = Math.max(1, stringCounter.count(range.transition.getDest()));
+            long charactersNeeded = (half - stringsInPrefix + stringsPerCharacter - 1) / stringsPerCharacter;
+            if (charactersNeeded >= range.size()) {
+                prefixRanges.add(range);
+                stringsInPrefix = saturatedAdd(stringsInPrefix, saturatedMultiply(range.size(), stringsPerCharacter));
+            } else {
+                char splitCharacter = (char) (range.min + charactersNeeded);
+                prefixRanges.add(new CharacterRange(range.transition, range.min, (char) (splitCharacter - 1)));
+                suffixRanges.add(new CharacterRange(range.transition, splitCharacter, range.max));
+            }
+        }
+
+        if (suffixRanges.isEmpty()) {
+            // the last character leads to at least half of the strings, so leave it on its own
+            CharacterRange last = prefixRanges.remove(prefixRanges.size() - 1);
+            if (last.size() > 1) {
+                prefixRanges.add(new CharacterRange(last.transition, last.min, (char) (last.max - 1)));
+            }
+            suffixRanges.add(new CharacterRange(last.transition, last.max, last.max));
+        }
+
+        Spliterator<String> prefixSpliterator = new FiniteStringAutomatonSpliterator(stringCounter, prefix, acceptPrefix, prefixRanges);
+        acceptPrefix = false;
+        ranges = suffixRanges;
+        estimatedSize = countStrings();
+        return prefixSpliterator;
+    }
+
+    private void takeCommonPrefix() {
+        while (!acceptPrefix && ranges.size() == 1 && ranges.get(0).size() == 1) {
+            CharacterRange onlyRange = ranges.get(0);
+            prefix = prefix + onlyRange.min;
+            acceptPrefix = onlyRange.transition.getDest().isAccept();
+            ranges = rangesFrom(onlyRange.transition.getDest());
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SORTED | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super String> getComparator() {
+        return null;
+    }
+
+    private long countStrings() {
+        long count = acceptPrefix ? 1 : 0;
+        for (CharacterRange range : ranges) {
+            count = saturatedAdd(count, saturatedMultiply(range.size(), stringCounter.count(range.transition.getDest())));
+        }
+        return count;
+    }
+
+    private static long countCharacters(List<CharacterRange> ranges) {
+        return ranges.stream().mapToLong(CharacterRange::size).sum();
+    }
+
+    private static List<CharacterRange> rangesFrom(State state) {
+        List<CharacterRange> ranges = new ArrayList<>();
+        for (Transition transition : state.getSortedTransitions(true)) {
+            ranges.add(new CharacterRange(transition, transition.getMin(), transition.getMax()));
+        }
+        return ranges;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        return b != 0 && a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+
+    private static class CharacterRange {
+        private final Transition transition;
+        private final char min;
+        private final char max;
+
+        CharacterRange(Transition transition, char min, char max) {
+            this.transition = transition;
+            this.min = min;
+            this.max = max;
+        }
+
+        long size() {
+            return max - min + 1;
+        }
+    }
+
+    /**
+     * Counts the strings accepted from each state, shared between the parts of a split automaton.
+     * States on a cycle lead to infinitely many strings, which are counted as Long.MAX_VALUE.
+     */
+    private static class StringCounter {
+        private final Map<State, Long> counts = new HashMap<>();
+        private final Set<State> counting = new HashSet<>();
+
+        synchronized long count(State state) {
+            Long count = counts.get(state);
+            if (count != null) {
+                return count;
+            }
+            if (!counting.add(state)) {
+                return Long.MAX_VALUE;
+            }
+
+            long total = state.isAccept() ? 1 : 0;
+            for (Transition transition : state.getTransitions()) {
+                long characters = transition.getMax() - transition.getMin() + 1;
+                total = saturatedAdd(total, saturatedMultiply(characters, count(transition.getDest())));
+            }
+
+            counting.remove(state);
+            counts.put(state, total);
+            return total;
+        }
+    }
+}
@@ -28,9 +28,13 @@ public class TransitionIterator implements Iterator<Character> {
     private Boolean accept;
 
     TransitionIterator(Transition transition) {
+        this(transition, transition.getMin(), transition.getMax());
+    }
+
+    TransitionIterator(Transition transition, char minChar, char maxChar) {
         this.transition = transition;
-        currentChar = transition.getMin();
-        maxChar = transition.getMax();
+        currentChar = minChar;
+        this.maxChar = maxChar;
         resetAccept();
     }
 
@@ -39,7 +39,7 @@ public class CombinationStrategyProvider  implements Provider<CombinationStrateg
         }
 
         switch(config.getCombinationStrategyType()){
-            case EXHAUSTIVE: return new ExhaustiveCombinationStrategy();
+            case EXHAUSTIVE: return new ExhaustiveCombinationStrategy(config.getThreads());
             case PINNING: return new PinningCombinationStrategy();
             case MINIMAL: return new MinimalCombinationStrategy();
             default:
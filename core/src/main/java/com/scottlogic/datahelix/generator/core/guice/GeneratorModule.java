@@ -21,13 +21,18 @@ import com.google.inject.Singleton;
 import com.google.inject.name.Names;
 import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
+import com.scottlogic.datahelix.generator.core.config.detail.RowOrdering;
+import com.scottlogic.datahelix.generator.core.config.detail.Shard;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
 import com.scottlogic.datahelix.generator.core.generation.*;
 import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.RegexStringGenerator;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
 import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
 import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
 import com.scottlogic.datahelix.generator.core.walker.decisionbased.OptionPicker;
 
-import java.time.OffsetDateTime;
+import java.security.SecureRandom;
 
 /**
  * Class to define default bindings for Guice injection. Utilises the generation config source to determine which
@@ -55,19 +60,36 @@ public class GeneratorModule extends AbstractModule {
         // bind config directly
         bind(DataGenerationType.class).toInstance(generationConfigSource.getGenerationType());
         bind(CombinationStrategyType.class).toInstance(generationConfigSource.getCombinationStrategyType());
+        bind(RowOrdering.class).toInstance(generationConfigSource.getRowOrdering());
+        bind(Shard.class).toInstance(generationConfigSource.getShard());
 
         bind(long.class)
             .annotatedWith(Names.named("config:maxRows"))
             .toInstance(generationConfigSource.getMaxRows());
 
+        bind(int.class)
+            .annotatedWith(Names.named("config:threads"))
+            .toInstance(generationConfigSource.getThreads());
+
         // Bind known implementations - no user input required
         bind(DataGeneratorMonitor.class).to(AbstractDataGeneratorMonitor.class);
         bind(DataGenerator.class).to(DecisionTreeDataGenerator.class);
 
+        // shared, so that the results they remember are reused by every stage of generation
+        bind(FieldSpecMerger.class).in(Singleton.class);
+        bind(ConstraintReducer.class).in(Singleton.class);
+
+        long randomSeed = generationConfigSource.getSeed().orElseGet(() -> new SecureRandom().nextLong());
+        bind(long.class)
+            .annotatedWith(Names.named("config:randomSeed"))
+            .toInstance(randomSeed);
         bind(JavaUtilRandomNumberGenerator.class)
-            .toInstance(new JavaUtilRandomNumberGenerator(OffsetDateTime.now().getNano()));
+            .toInstance(new JavaUtilRandomNumberGenerator(randomSeed));
         bind(int.class)
             .annotatedWith(Names.named("config:internalRandomRowSpecStorage"))
             .toInstance(256);
+
+        // the automaton caches are shared by every regex generator, so are configured here rather than injected
+        RegexStringGenerator.persistAutomataIn(generationConfigSource.getRegexCacheDirectory().orElse(null));
     }
 }
@@ -18,20 +18,33 @@ package com.scottlogic.datahelix.generator.core.guice;
 
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.google.inject.name.Named;
+import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.generation.*;
 
 import java.io.PrintWriter;
 
 public class MonitorProvider implements Provider<AbstractDataGeneratorMonitor>  {
     private GenerationConfigSource commandLine;
+    private final long randomSeed;
 
     @Inject
-    MonitorProvider(GenerationConfigSource commandLine) {
+    MonitorProvider(GenerationConfigSource commandLine, @Named("config:randomSeed") long randomSeed) {
         this.commandLine = commandLine;
+        this.randomSeed = randomSeed;
     }
 
     @Override
     public AbstractDataGeneratorMonitor get() {
+        AbstractDataGeneratorMonitor monitor = createMonitor();
+        if (commandLine.getGenerationType() == DataGenerationType.RANDOM) {
+            // reported once per run, so that a dataset generated from a chosen seed can be generated again
+            monitor.addLineToPrintAtEndOfGeneration("Random data generated with --seed " + randomSeed);
+        }
+        return monitor;
+    }
+
+    private AbstractDataGeneratorMonitor createMonitor() {
         switch (commandLine.getMonitorType()) {
             case VERBOSE:
                 return new MessagePrintingDataGeneratorMonitor(
@@ -19,6 +19,7 @@ package com.scottlogic.datahelix.generator.core.reducer;
 import com.google.inject.Inject;
 import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.common.util.MemoisationCache;
 import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
 import com.scottlogic.datahelix.generator.core.decisiontree.ConstraintNode;
 import com.scottlogic.datahelix.generator.core.fieldspecs.*;
@@ -31,7 +32,11 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class ConstraintReducer {
+    public static final int MAX_CACHED_REDUCTIONS = 10_000;
+
     private final FieldSpecMerger fieldSpecMerger;
+    private final MemoisationCache<ReductionKey, Optional<FieldSpec>> reductions =
+        new MemoisationCache<>(MAX_CACHED_REDUCTIONS);
 
     @Inject
     public ConstraintReducer(
@@ -77,7 +82,7 @@ public class ConstraintReducer {
     public Optional<FieldSpec> reduceConstraintsToFieldSpec(Field field, Iterable<AtomicConstraint> constraints) {
         return constraints == null
             ? Optional.of(FieldSpecFactory.fromType(field.getType()))
-            : getRootFieldSpec(field, constraints);
+            : reductions.get(new ReductionKey(field, constraints), key -> getRootFieldSpec(field, key.constraints));
     }
 
     private Optional<FieldSpec> getRootFieldSpec(Field field, Iterable<AtomicConstraint> rootConstraints) {
@@ -94,4 +99,34 @@ public class ConstraintReducer {
                     spec1 -> optSpec2.flatMap(
                         spec2 -> fieldSpecMerger.merge(spec1, spec2, false))));
     }
+
+    /**
+     * Constraints are compared by value, in the order they are reduced, as the sets of constraints for a field are
+     * usually rebuilt for each node. Reducing equal constraints gives the same field spec instances, which in turn
+     * lets the field spec merger reuse its results.
+     */
+    private static class ReductionKey {
+        private final Field field;
+        private final List<AtomicConstraint> constraints = new ArrayList<>();
+        private final int hashCode;
+
+        ReductionKey(Field field, Iterable<AtomicConstraint> constraints) {
+            this.field = field;
+            constraints.forEach(this.constraints::add);
+            this.hashCode = Objects.hash(field, this.constraints);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ReductionKey that = (ReductionKey) o;
+            return hashCode == that.hashCode && field.equals(that.field) && constraints.equals(that.constraints);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
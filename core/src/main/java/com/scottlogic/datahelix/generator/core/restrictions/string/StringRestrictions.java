@@ -18,6 +18,7 @@ package com.scottlogic.datahelix.generator.core.restrictions.string;
 
 import com.github.javafaker.Faker;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.BlacklistingStringGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.FakerGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.NoStringsStringGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.RegexStringGenerator;
@@ -34,6 +35,10 @@ import java.util.stream.Stream;
 
 public class StringRestrictions implements TypedRestrictions<String>
 {
+    // beyond this many strings, intersecting with an automaton that excludes the blacklist costs more than looking up
+    // each generated value in it
+    private static final int MAX_BLACKLIST_AUTOMATON_SIZE = 100;
+
     private final Integer minLength;
     private final Integer maxLength;
     private final Set<Integer> excludedLengths;
@@ -85,8 +90,21 @@ public class StringRestrictions implements TypedRestrictions<String>
             return createGenerator();
         }
 
+        StringGenerator generator = createGenerator();
+        if (blacklist.size() > MAX_BLACKLIST_AUTOMATON_SIZE && !couldAllBeBlacklisted(generator, blacklist)) {
+            return new BlacklistingStringGenerator(generator, blacklist);
+        }
+
         RegexStringGenerator blacklistGenerator = RegexStringGenerator.createFromBlacklist(blacklist);
-        return createGenerator().intersect(blacklistGenerator);
+        return generator.intersect(blacklistGenerator);
+    }
+
+    // random generation only skips blacklisted values by drawing again, so would never end if every value the
+    // generator can produce is blacklisted; such a generator is intersected with the blacklist instead, which is
+    // cheap as it matches no more strings than the blacklist holds
+    private static boolean couldAllBeBlacklisted(StringGenerator generator, Set<String> blacklist) {
+        return generator instanceof RegexStringGenerator
+            && ((RegexStringGenerator) generator).matchesAtMost(blacklist.size());
     }
 
     /**
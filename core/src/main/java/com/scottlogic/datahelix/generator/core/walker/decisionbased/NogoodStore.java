@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.walker.decisionbased;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The sets of atomic constraints on a field that have been found to contradict each other, each reduced to as few
+ * constraints as still contradict. Adding constraints to a field can only narrow the values it permits, so any node
+ * holding every constraint of one of these sets is contradictory as well, and need not be merged to find that out.
+ */
+class NogoodStore {
+    static final int MAX_NOGOODS_PER_FIELD = 256;
+
+    private final ConstraintReducer constraintReducer;
+    private final Map<Field, List<Set<AtomicConstraint>>> nogoods = new ConcurrentHashMap<>();
+
+    NogoodStore(ConstraintReducer constraintReducer) {
+        this.constraintReducer = constraintReducer;
+    }
+
+    boolean isKnownContradiction(Field field, Set<AtomicConstraint> constraints) {
+        List<Set<AtomicConstraint>> fieldNogoods = nogoods.get(field);
+        return fieldNogoods != null && fieldNogoods.stream().anyMatch(constraints::containsAll);
+    }
+
+    /**
+     * Record the given constraints if they contradict each other, keeping only the constraints needed to do so
+     */
+    void learn(Field field, Collection<AtomicConstraint> constraints) {
+        if (!isContradictory(field, constraints)) {
+            return;
+        }
+
+        List<AtomicConstraint> nogood = new ArrayList<>(constraints);
+        for (int i = nogood.size() - 1; i >= 0; i--) {
+            List<AtomicConstraint> withoutConstraint = new ArrayList<>(nogood);
+            withoutConstraint.remove(i);
+            if (isContradictory(field, withoutConstraint)) {
+                nogood = withoutConstraint;
+            }
+        }
+
+        List<Set<AtomicConstraint>> fieldNogoods = nogoods.computeIfAbsent(field, key -> new CopyOnWriteArrayList<>());
+        Set<AtomicConstraint> nogoodSet = new HashSet<>(nogood);
+        if (fieldNogoods.size() < MAX_NOGOODS_PER_FIELD && fieldNogoods.stream().noneMatch(nogoodSet::containsAll)) {
+            fieldNogoods.add(nogoodSet);
+        }
+    }
+
+    private boolean isContradictory(Field field, Collection<AtomicConstraint> constraints) {
+        return !constraintReducer.reduceConstraintsToFieldSpec(field, constraints).isPresent();
+    }
+}
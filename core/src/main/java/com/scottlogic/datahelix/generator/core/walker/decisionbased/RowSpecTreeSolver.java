@@ -18,6 +18,7 @@ package com.scottlogic.datahelix.generator.core.walker.decisionbased;
 import com.google.inject.Inject;
 import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.common.util.MemoisationCache;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
 import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
 import com.scottlogic.datahelix.generator.core.decisiontree.ConstraintNode;
@@ -29,8 +30,7 @@ import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
 import com.scottlogic.datahelix.generator.core.walker.pruner.Merged;
 import com.scottlogic.datahelix.generator.core.walker.pruner.TreePruner;
 
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,9 +38,25 @@ import java.util.stream.Stream;
 import static com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator.flatMap;
 
 public class RowSpecTreeSolver {
+    // a rough size of a cached node with its constraints, so that the caches together use up to a quarter of the heap
+    private static final long ESTIMATED_BYTES_PER_CACHED_NODE = 16 * 1024;
+    private static final int MAX_CACHED_NODES_PER_CACHE = (int) Math.max(1_024, Math.min(1_000_000,
+        Runtime.getRuntime().maxMemory() / 4 / 3 / ESTIMATED_BYTES_PER_CACHED_NODE));
+
+    // the solved parts of the tree, kept between samples as each sample reaches many of the same nodes again.
+    // They are shared by every solver, so the bound holds however many solvers are live; a key's result does not
+    // depend on which solver computed it.
+    private static final MemoisationCache<NodeKey, ConstraintNode> nodesWithoutDecision =
+        new MemoisationCache<>(MAX_CACHED_NODES_PER_CACHE);
+    private static final MemoisationCache<NodeKey, Merged<ConstraintNode>> prunedOptions =
+        new MemoisationCache<>(MAX_CACHED_NODES_PER_CACHE);
+    private static final MemoisationCache<NodeKey, Optional<RowSpec>> rowSpecs =
+        new MemoisationCache<>(MAX_CACHED_NODES_PER_CACHE);
+
     private final ConstraintReducer constraintReducer;
     private final TreePruner treePruner;
     private final OptionPicker optionPicker;
+    private final NogoodStore nogoods;
 
     @Inject
     public RowSpecTreeSolver(ConstraintReducer constraintReducer,
@@ -49,37 +65,61 @@ public class RowSpecTreeSolver {
         this.constraintReducer = constraintReducer;
         this.treePruner = treePruner;
         this.optionPicker = optionPicker;
+        this.nogoods = new NogoodStore(constraintReducer);
     }
 
     public Stream<RowSpec> createRowSpecs(DecisionTree tree) {
-        return flatMap(reduceToRowNodes(tree.rootNode),
-            rootNode -> toRowspec(tree.fields, rootNode));
+        return flatMap(reduceToRowNodes(tree.rootNode, false),
+            rootNode -> toRowspec(tree.fields, rootNode, false));
+    }
+
+    /**
+     * Pick the first row spec that the option picker leads to, as the first of {@link #createRowSpecs} would be.
+     * The nodes reached by pruning each option and the row specs reduced from them are kept, so that sampling the
+     * same tree repeatedly only repeats the choices of the option picker and not the work of solving the tree.
+     */
+    public Optional<RowSpec> sampleRowSpec(DecisionTree tree) {
+        return flatMap(reduceToRowNodes(tree.rootNode, true),
+            rootNode -> toRowspec(tree.fields, rootNode, true))
+            .findFirst();
     }
 
-    private Stream<RowSpec> toRowspec(Fields fields, ConstraintNode rootNode) {
-        Optional<RowSpec> result = constraintReducer.reduceConstraintsToRowSpec(fields, rootNode);
+    private Stream<RowSpec> toRowspec(Fields fields, ConstraintNode rootNode, boolean useCache) {
+        Optional<RowSpec> result = useCache
+            ? rowSpecs.get(
+                new NodeKey(rootNode, fields),
+                key -> constraintReducer.reduceConstraintsToRowSpec(fields, rootNode))
+            : constraintReducer.reduceConstraintsToRowSpec(fields, rootNode);
         return result.map(Stream::of).orElseGet(Stream::empty);
     }
 
     /**
      * a row node is a constraint node with no further decisions
      */
-    private Stream<ConstraintNode> reduceToRowNodes(ConstraintNode rootNode) {
+    private Stream<ConstraintNode> reduceToRowNodes(ConstraintNode rootNode, boolean useCache) {
         if (rootNode.getDecisions().isEmpty()) {
             return Stream.of(rootNode);
         }
 
         DecisionNode decisionNode = optionPicker.pickDecision(rootNode);
-        ConstraintNode rootWithoutDecision = rootNode.builder().removeDecision(decisionNode).build();
+        ConstraintNode rootWithoutDecision = useCache
+            ? nodesWithoutDecision.get(
+                new NodeKey(rootNode, decisionNode),
+                key -> rootNode.builder().removeDecision(decisionNode).build())
+            : rootNode.builder().removeDecision(decisionNode).build();
 
         Stream<ConstraintNode> rootOnlyConstraintNodes = optionPicker.streamOptions(decisionNode)
-            .map(option -> combineWithRootNode(rootWithoutDecision, option))
+            .map(option -> useCache
+                ? prunedOptions.get(
+                    new NodeKey(rootWithoutDecision, option),
+                    key -> combineWithRootNode(rootWithoutDecision, option))
+                : combineWithRootNode(rootWithoutDecision, option))
             .filter(newNode -> !newNode.isContradictory())
             .map(Merged::get);
 
         return flatMap(
             rootOnlyConstraintNodes,
-            this::reduceToRowNodes);
+            node -> reduceToRowNodes(node, useCache));
     }
 
     private Merged<ConstraintNode> combineWithRootNode(ConstraintNode rootNode, ConstraintNode option) {
@@ -89,7 +129,28 @@ public class RowSpecTreeSolver {
             .addRelations(option.getRelations())
             .build();
 
-        return treePruner.pruneConstraintNode(constraintNode, getFields(option));
+        Map<Field, Set<AtomicConstraint>> optionFieldConstraints = getOptionFieldConstraints(constraintNode, option);
+        if (optionFieldConstraints.entrySet().stream()
+            .anyMatch(entry -> nogoods.isKnownContradiction(entry.getKey(), entry.getValue()))) {
+            return Merged.contradictory();
+        }
+
+        Merged<ConstraintNode> pruned = treePruner.pruneConstraintNode(constraintNode, getFields(option));
+        if (pruned.isContradictory()) {
+            // the contradiction may lie between the constraints on a field, which any other branch would meet again
+            optionFieldConstraints.forEach(nogoods::learn);
+        }
+        return pruned;
+    }
+
+    private Map<Field, Set<AtomicConstraint>> getOptionFieldConstraints(ConstraintNode node, ConstraintNode option) {
+        Set<Field> optionFields = option.getAtomicConstraints().stream()
+            .map(AtomicConstraint::getField)
+            .collect(Collectors.toSet());
+
+        return node.getAtomicConstraints().stream()
+            .filter(constraint -> optionFields.contains(constraint.getField()))
+            .collect(Collectors.groupingBy(AtomicConstraint::getField, Collectors.toSet()));
     }
 
     private Map<Field, FieldSpec> getFields(ConstraintNode option) {
@@ -101,4 +162,32 @@ public class RowSpecTreeSolver {
                 field -> FieldSpecFactory.fromType(field.getType())));
     }
 
+    /**
+     * A node together with whatever else the result of solving it depends on
+     */
+    private static final class NodeKey {
+        private final ConstraintNode node;
+        private final Object other;
+        private final int hashCode;
+
+        NodeKey(ConstraintNode node, Object other) {
+            this.node = node;
+            this.other = other;
+            this.hashCode = Objects.hash(node, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            NodeKey that = (NodeKey) o;
+            return hashCode == that.hashCode && node.equals(that.node) && other.equals(that.other);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
 }
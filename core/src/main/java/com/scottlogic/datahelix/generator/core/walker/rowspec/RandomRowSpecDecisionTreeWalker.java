@@ -79,7 +79,7 @@ public class RandomRowSpecDecisionTreeWalker implements DecisionTreeWalker {
     }
 
     private Optional<RowSpec> getFirstRowSpec(DecisionTree tree) {
-        return rowSpecTreeSolver.createRowSpecs(tree).findFirst();
+        return rowSpecTreeSolver.sampleRowSpec(tree);
     }
 
     private RowSpec getRandomRowSpec(List<RowSpec> rowSpecCache) {
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.config.detail;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardTests {
+    @Test
+    void parse_withIndexAndCount_createsShard() {
+        assertEquals(new Shard(3, 16), Shard.parse("3/16"));
+    }
+
+    @Test
+    void parse_withoutCount_throws() {
+        assertThrows(ValidationException.class, () -> Shard.parse("3"));
+    }
+
+    @Test
+    void parse_withIndexGreaterThanCount_throws() {
+        assertThrows(ValidationException.class, () -> Shard.parse("17/16"));
+    }
+
+    @Test
+    void parse_withZeroIndex_throws() {
+        assertThrows(ValidationException.class, () -> Shard.parse("0/16"));
+    }
+
+    @Test
+    void whole_coversEveryRow() {
+        assertEquals(0, Shard.WHOLE.getFirstRow(1000));
+        assertEquals(1000, Shard.WHOLE.getRowCount(1000));
+    }
+
+    @Test
+    void shards_coverEveryRowExactlyOnceInOrder() {
+        long totalRows = 1003;
+        long nextRow = 0;
+        for (int index = 1; index <= 16; index++) {
+            Shard shard = new Shard(index, 16);
+            assertEquals(nextRow, shard.getFirstRow(totalRows));
+            nextRow += shard.getRowCount(totalRows);
+        }
+        assertEquals(totalRows, nextRow);
+    }
+
+    @Test
+    void getRowCount_withVeryLargeNumberOfRows_doesNotOverflow() {
+        Shard lastShard = new Shard(16, 16);
+
+        assertEquals(Long.MAX_VALUE, lastShard.getFirstRow(Long.MAX_VALUE) + lastShard.getRowCount(Long.MAX_VALUE));
+    }
+}
@@ -166,4 +166,50 @@ class ConstraintNodeTest {
 
         assertNotEquals(constraintNode1.hashCode(), constraintNode2.hashCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void builder_addingConstraintsAlreadyPresent_sharesExistingConstraints() {
+        ConstraintNode constraintNode = constraintNode()
+            .where(A).isInSet("a1", "a2")
+            .where(B).isInSet("b1", "b2")
+            .build();
+
+        ConstraintNode rebuilt = constraintNode.builder()
+            .addAtomicConstraints(constraintNode.getAtomicConstraints())
+            .build();
+
+        assertEquals(constraintNode, rebuilt);
+        assertSame(constraintNode.getAtomicConstraints(), rebuilt.getAtomicConstraints());
+    }
+
+    @Test
+    public void builder_removingDecisionNotPresent_keepsExistingDecisions() {
+        ConstraintNode constraintNode = constraintNode()
+            .where(A).isInSet("a1")
+            .withDecision(
+                constraintNode().where(B).isInSet("b1"),
+                constraintNode().where(B).isNotInSet("b1"))
+            .build();
+        DecisionNode otherDecision = new DecisionNode(constraintNode().where(A).isInSet("a2").build());
+
+        ConstraintNode rebuilt = constraintNode.builder().removeDecision(otherDecision).build();
+
+        assertEquals(constraintNode, rebuilt);
+        assertEquals(constraintNode.hashCode(), rebuilt.hashCode());
+    }
+
+    @Test
+    public void builder_rebuildingRepeatedly_doesNotWrapConstraintsAgain() {
+        ConstraintNode constraintNode = constraintNode()
+            .where(A).isInSet("a1", "a2")
+            .build();
+
+        ConstraintNode rebuilt = constraintNode;
+        for (int index = 0; index < 100_000; index++) {
+            rebuilt = rebuilt.builder().markNode(NodeMarking.CONTRADICTORY).build();
+        }
+
+        assertSame(constraintNode.getAtomicConstraints(), rebuilt.getAtomicConstraints());
+        assertTrue(rebuilt.getAtomicConstraints().contains(constraintNode.getAtomicConstraints().iterator().next()));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.scottlogic.datahelix.generator.core.fieldspecs;
+package com.scottlogic.datahelix.generator.core.fieldspecs;
+
+import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
+import com.scottlogic.datahelix.generator.common.whitelist.WeightedElement;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSpecMergerTests {
+    private final FieldSpecMerger fieldSpecMerger = new FieldSpecMerger();
+
+    @Test
+    void mergeSetsShouldKeepCommonElementsInLeftOrderWithCombinedWeights() {
+        WhitelistFieldSpec left = FieldSpecFactory.fromList(new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("c", 1.0D),
+            new WeightedElement<>("a", 1.0D),
+            new WeightedElement<>("b", 2.0D))));
+        WhitelistFieldSpec right = FieldSpecFactory.fromList(new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("a", 3.0D),
+            new WeightedElement<>("b", 2.0D),
+            new WeightedElement<>("d", 1.0D))));
+
+        WhitelistFieldSpec merged = (WhitelistFieldSpec) fieldSpecMerger.merge(left, right, false).get();
+
+        assertEquals(
+            new DistributedList<>(Arrays.asList(
+                new WeightedElement<>("a", 0.25D + 0.5D),
+                new WeightedElement<>("b", 0.5D + 1.0D / 3.0D))),
+            merged.getWhitelist());
+    }
+
+    @Test
+    void mergeSetsShouldIntersectLargeSets() {
+        List<Object> evenNumbers = IntStream.range(0, 200_000).filter(i -> i % 2 == 0).boxed().collect(Collectors.toList());
+        List<Object> multiplesOfThree = IntStream.range(0, 300_000).filter(i -> i % 3 == 0).boxed().collect(Collectors.toList());
+
+        WhitelistFieldSpec merged = (WhitelistFieldSpec) fieldSpecMerger.merge(
+            FieldSpecFactory.fromList(DistributedList.uniform(evenNumbers)),
+            FieldSpecFactory.fromList(DistributedList.uniform(multiplesOfThree)),
+            false).get();
+
+        assertEquals(
+            IntStream.range(0, 200_000).filter(i -> i % 6 == 0).boxed().collect(Collectors.toList()),
+            merged.getWhitelist().list());
+    }
+
+    @Test
+    void mergeShouldReuseTheResultOfMergingTheSameSpecs() {
+        WhitelistFieldSpec left = FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList("a", "b")));
+        WhitelistFieldSpec right = FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList("b", "c")));
+
+        FieldSpec first = fieldSpecMerger.merge(left, right, false).get();
+        FieldSpec second = fieldSpecMerger.merge(left, right, false).get();
+
+        assertSame(first, second);
+        assertEquals(1, fieldSpecMerger.getMergeCache().getHitCount());
+        assertEquals(1, fieldSpecMerger.getMergeCache().getMissCount());
+    }
+}
@@ -24,6 +24,7 @@ import com.scottlogic.datahelix.generator.core.restrictions.string.StringRestric
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -49,7 +50,7 @@ class InMapIndexRelationTest {
     void reduceToRelatedFieldSpec_whenAllValid_returnCompleteWhiteList() {
         FieldSpec parameter = FieldSpecFactory.fromType(FieldType.STRING);
 
-        FieldSpec expected = FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList(0, 1))).withNotNull();
+        FieldSpec expected = FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList(BigDecimal.valueOf(0), BigDecimal.valueOf(1)))).withNotNull();
         FieldSpec actual = testInstance.createModifierFromOtherFieldSpec(parameter);
 
         assertThat(actual, sameBeanAs(expected));
@@ -59,9 +60,24 @@ class InMapIndexRelationTest {
     void reduceToRelatedFieldSpec_whenSomeValid_returnReducedWhiteList() {
         FieldSpec parameter = FieldSpecFactory.fromRestriction(StringRestrictionsFactory.forStringContaining(Pattern.compile("^f.*"), false));
 
-        FieldSpec expected = FieldSpecFactory.fromList(DistributedList.uniform(Collections.singletonList(0))).withNotNull();
+        FieldSpec expected = FieldSpecFactory.fromList(DistributedList.uniform(Collections.singletonList(BigDecimal.valueOf(0)))).withNotNull();
         FieldSpec actual = testInstance.createModifierFromOtherFieldSpec(parameter);
 
         assertThat(actual, sameBeanAs(expected));
     }
-}
\ No newline at end of file
+
+    @Test
+    void reduceToRelatedFieldSpec_whenOtherIsWhiteList_returnIndexesOfEveryMatchingValueInOrder() {
+        InMapIndexRelation relation = new InMapIndexRelation(
+            createField("index"),
+            createField("value"),
+            DistributedList.uniform(Arrays.asList("foo", "bar", "baz", "foo", "bar")));
+        FieldSpec parameter = FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList("bar", "foo", "qux")));
+
+        FieldSpec expected = FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList(
+            BigDecimal.valueOf(0), BigDecimal.valueOf(1), BigDecimal.valueOf(3), BigDecimal.valueOf(4)))).withNotNull();
+        FieldSpec actual = relation.createModifierFromOtherFieldSpec(parameter);
+
+        assertThat(actual, sameBeanAs(expected));
+    }
+}
@@ -17,13 +17,17 @@
 package com.scottlogic.datahelix.generator.core.generation;
 
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
 import com.scottlogic.datahelix.generator.core.profile.Profile;
+import com.scottlogic.datahelix.generator.core.config.detail.Shard;
 import com.scottlogic.datahelix.generator.core.decisiontree.ConstraintNode;
 import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
 import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTreeFactory;
 import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTreeOptimiser;
 import com.scottlogic.datahelix.generator.core.decisiontree.treepartitioning.TreePartitioner;
 import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
+import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.ExhaustiveCombinationStrategy;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import com.scottlogic.datahelix.generator.core.generation.visualiser.Visualiser;
 import com.scottlogic.datahelix.generator.core.generation.visualiser.VisualiserFactory;
@@ -34,10 +38,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.times;
@@ -53,6 +64,7 @@ class DecisionTreeDataGeneratorTests {
     private DecisionTreeWalker treeWalker;
     private UpfrontTreePruner upfrontTreePruner;
     private VisualiserFactory visualiserFactory;
+    private RandomGenerationWorkers randomGenerationWorkers;
     @BeforeEach
     void setup() {
         factory = Mockito.mock(DecisionTreeFactory.class);
@@ -63,6 +75,7 @@ class DecisionTreeDataGeneratorTests {
         combinationStrategy = Mockito.mock(CombinationStrategy.class);
         upfrontTreePruner = Mockito.mock(UpfrontTreePruner.class);
         visualiserFactory = Mockito.mock(VisualiserFactory.class);
+        randomGenerationWorkers = Mockito.mock(RandomGenerationWorkers.class);
         long maxRows = 10;
         generator = new DecisionTreeDataGenerator(
             factory,
@@ -73,7 +86,10 @@ class DecisionTreeDataGeneratorTests {
             combinationStrategy,
             upfrontTreePruner,
             visualiserFactory,
-            maxRows
+            randomGenerationWorkers,
+            maxRows,
+            Shard.WHOLE,
+            1
         );
     }
 
@@ -133,4 +149,80 @@ class DecisionTreeDataGeneratorTests {
             verify(visualiser, times(2)).printTree(any(), any());
         }
     }
+
+    @Nested
+    class walkingPartitionsOnThreads {
+        private static final long MAX_ROWS = 1_000;
+
+        private final List<DecisionTree> partitions = new ArrayList<>();
+        private Profile profile;
+
+        @BeforeEach
+        void setup() {
+            DecisionTree tree = Mockito.mock(DecisionTree.class);
+            profile = Mockito.mock(Profile.class);
+            Mockito.when(tree.getRootNode()).thenReturn(Mockito.mock(ConstraintNode.class));
+            Mockito.when(factory.analyse(profile)).thenReturn(tree);
+            Mockito.when(upfrontTreePruner.runUpfrontPrune(eq(tree), any())).thenReturn(tree);
+            Mockito.when(visualiserFactory.create(any(), any())).thenReturn(Mockito.mock(Visualiser.class));
+            Mockito.when(optimiser.optimiseTree(any())).thenAnswer(invocation -> invocation.getArguments()[0]);
+
+            // an outer partition of more rows than a buffered batch, combined with two small inner partitions
+            int[] partitionSizes = {200, 3, 3};
+            for (int partition = 0; partition < partitionSizes.length; partition++) {
+                DecisionTree partitionTree = Mockito.mock(DecisionTree.class);
+                Field field = createField("field" + partition);
+                String prefix = "p" + partition + "-";
+                int size = partitionSizes[partition];
+                Mockito.when(treeWalker.walk(partitionTree)).thenAnswer(invocation -> IntStream.range(0, size)
+                    .mapToObj(value -> DataBagBuilder.of(field, prefix + value)));
+                partitions.add(partitionTree);
+            }
+            Mockito.when(treePartitioner.splitTreeIntoPartitions(any())).thenAnswer(invocation -> partitions.stream());
+        }
+
+        @Test
+        void generateData_withMoreThanOneThread_emitsTheSameRowsInTheSameOrderAsOneThread() {
+            //Act
+            List<GeneratedObject> singleThreaded = generatorWithThreads(1).generateData(profile)
+                .collect(Collectors.toList());
+            List<GeneratedObject> multiThreaded = generatorWithThreads(4).generateData(profile)
+                .collect(Collectors.toList());
+
+            //Assert
+            assertEquals(MAX_ROWS, singleThreaded.size());
+            assertEquals(singleThreaded, multiThreaded);
+        }
+
+        @Test
+        void generateData_withMoreThanOneThread_whenWalkingAPartitionFails_throwsItsException() {
+            //Arrange
+            IllegalStateException failure = new IllegalStateException("walk failed");
+            Mockito.when(treeWalker.walk(partitions.get(1))).thenThrow(failure);
+
+            //Act
+            IllegalStateException thrown = assertThrows(
+                IllegalStateException.class,
+                () -> generatorWithThreads(4).generateData(profile).count());
+
+            //Assert
+            assertSame(failure, thrown);
+        }
+
+        private DecisionTreeDataGenerator generatorWithThreads(int threads) {
+            return new DecisionTreeDataGenerator(
+                factory,
+                treeWalker,
+                treePartitioner,
+                optimiser,
+                monitor,
+                new ExhaustiveCombinationStrategy(),
+                upfrontTreePruner,
+                visualiserFactory,
+                randomGenerationWorkers,
+                MAX_ROWS,
+                Shard.WHOLE,
+                threads);
+        }
+    }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.core.generation;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.core.builders.TestConstraintNodeBuilder;
+import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
+import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
+import com.scottlogic.datahelix.generator.core.config.detail.RowOrdering;
+import com.scottlogic.datahelix.generator.core.config.detail.Shard;
+import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecHelper;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
+import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
+import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.MinimalCombinationStrategy;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+import com.scottlogic.datahelix.generator.core.walker.pruner.TreePruner;
+import com.scottlogic.datahelix.generator.core.walker.rowspec.PotentialRowSpecCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RandomGenerationWorkersTests {
+    private static final long SEED = 42;
+    private static final int BLOCK = RandomGenerationWorkers.ROWS_PER_BLOCK;
+    private static final int ROWS = BLOCK * 2 + 500;
+
+    private final Field fieldA = createField("A");
+    private final Field fieldB = createField("B");
+    private final List<DecisionTree> partitions = Arrays.asList(
+        new DecisionTree(
+            TestConstraintNodeBuilder.constraintNode()
+                .withDecision(
+                    TestConstraintNodeBuilder.constraintNode().where(fieldA).isInSet("a1", "a2", "a3", "a4", "a5"),
+                    TestConstraintNodeBuilder.constraintNode().where(fieldA).isNull())
+                .build(),
+            new Fields(Collections.singletonList(fieldA))),
+        new DecisionTree(
+            TestConstraintNodeBuilder.constraintNode().where(fieldB).isInSet("b1", "b2", "b3").build(),
+            new Fields(Collections.singletonList(fieldB))));
+
+    @Test
+    void generate_withOneOrManyWorkersOrInShards_generatesTheSameRows() {
+        //Act
+        List<DataBag> singleWorker = generate(workers(1, RowOrdering.ORDERED), 0, ROWS);
+        List<DataBag> manyWorkers = generate(workers(4, RowOrdering.ORDERED), 0, ROWS);
+        List<DataBag> shards = new ArrayList<>();
+        for (int index = 1; index <= 3; index++) {
+            Shard shard = new Shard(index, 3);
+            shards.addAll(generate(workers(1, RowOrdering.ORDERED), shard.getFirstRow(ROWS), shard.getRowCount(ROWS)));
+        }
+
+        //Assert
+        assertEquals(ROWS, singleWorker.size());
+        assertEquals(singleWorker, manyWorkers);
+        assertEquals(singleWorker, shards);
+    }
+
+    @Test
+    void generate_fromTheStartOfABlock_generatesTheSameRowsAsThatBlockOfTheWholeRun() {
+        //Act
+        List<DataBag> wholeRun = generate(workers(1, RowOrdering.ORDERED), 0, ROWS);
+        List<DataBag> secondBlock = generate(workers(1, RowOrdering.ORDERED), BLOCK, BLOCK);
+
+        //Assert
+        assertEquals(wholeRun.subList(BLOCK, BLOCK * 2), secondBlock);
+        assertNotEquals(wholeRun.subList(0, BLOCK), secondBlock);
+    }
+
+    @Test
+    void generate_withAnotherSeed_generatesOtherRows() {
+        //Act
+        List<DataBag> rows = generate(workers(1, RowOrdering.ORDERED), 0, BLOCK);
+        List<DataBag> otherRows = generate(
+            workers(SEED + 1, 1, RowOrdering.ORDERED, new MinimalCombinationStrategy()), 0, BLOCK);
+
+        //Assert
+        assertNotEquals(rows, otherRows);
+    }
+
+    @Test
+    void generate_unorderedWithManyWorkers_generatesTheSameBlocksAsOrdered() {
+        //Arrange
+        int rows = BLOCK * 3;
+
+        //Act
+        List<DataBag> ordered = generate(workers(4, RowOrdering.ORDERED), 0, rows);
+        List<DataBag> unordered = generate(workers(4, RowOrdering.UNORDERED), 0, rows);
+
+        //Assert
+        assertEquals(rows, unordered.size());
+        assertEquals(new HashSet<>(blocks(ordered)), new HashSet<>(blocks(unordered)));
+    }
+
+    @Test
+    void generate_unorderedFromTheMiddleOfABlock_onlyGeneratesRowsFromTheFirstRowOn() {
+        //Arrange
+        int firstRow = BLOCK / 4;
+
+        //Act
+        List<DataBag> wholeRun = generate(workers(1, RowOrdering.ORDERED), 0, ROWS);
+        List<DataBag> unordered = generate(workers(4, RowOrdering.UNORDERED), firstRow, ROWS - firstRow);
+
+        //Assert
+        assertEquals(countRows(wholeRun.subList(firstRow, ROWS)), countRows(unordered));
+    }
+
+    @Test
+    void generate_whenThePartitionsRunOutOfRows_endsAfterTheLastRow() {
+        //Arrange
+        CombinationStrategy threeRowsPerBlock = sequences -> new MinimalCombinationStrategy().permute(sequences).limit(3);
+
+        //Act
+        List<DataBag> singleWorker = generate(workers(SEED, 1, RowOrdering.ORDERED, threeRowsPerBlock), 0, ROWS);
+        List<DataBag> manyWorkers = generate(workers(SEED, 4, RowOrdering.ORDERED, threeRowsPerBlock), 0, ROWS);
+
+        //Assert
+        assertEquals(3, singleWorker.size());
+        assertEquals(singleWorker, manyWorkers);
+    }
+
+    private static List<List<DataBag>> blocks(List<DataBag> rows) {
+        List<List<DataBag>> blocks = new ArrayList<>();
+        for (int start = 0; start < rows.size(); start += BLOCK) {
+            blocks.add(rows.subList(start, Math.min(start + BLOCK, rows.size())));
+        }
+        return blocks;
+    }
+
+    private static Map<DataBag, Long> countRows(List<DataBag> rows) {
+        return rows.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+
+    private List<DataBag> generate(RandomGenerationWorkers workers, long firstRow, long rowCount) {
+        return workers.generate(partitions, firstRow, rowCount).collect(Collectors.toList());
+    }
+
+    private RandomGenerationWorkers workers(int threads, RowOrdering rowOrdering) {
+        return workers(SEED, threads, rowOrdering, new MinimalCombinationStrategy());
+    }
+
+    private RandomGenerationWorkers workers(
+        long seed,
+        int threads,
+        RowOrdering rowOrdering,
+        CombinationStrategy combinationStrategy) {
+        FieldSpecMerger fieldSpecMerger = new FieldSpecMerger();
+        ConstraintReducer constraintReducer = new ConstraintReducer(fieldSpecMerger);
+        return new RandomGenerationWorkers(
+            constraintReducer,
+            new TreePruner(fieldSpecMerger, constraintReducer, new FieldSpecHelper()),
+            new PotentialRowSpecCount(256),
+            combinationStrategy,
+            CombinationStrategyType.MINIMAL,
+            DataGenerationType.RANDOM,
+            seed,
+            threads,
+            rowOrdering);
+    }
+}
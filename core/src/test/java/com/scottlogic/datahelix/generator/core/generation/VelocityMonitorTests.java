@@ -21,10 +21,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.times;
 
 public class VelocityMonitorTests {
@@ -48,4 +51,36 @@ public class VelocityMonitorTests {
         Mockito.verify(mockWriter, times(5)).println(args.capture());
         assertEquals(expectedStrings, args.getAllValues().subList(3, 5));
     }
+
+    @Test
+    public void endGeneration_afterOverlappingGenerationsOnManyThreads_reportsEveryRowEmitted() throws InterruptedException {
+        //Arrange
+        PrintWriter mockWriter = Mockito.mock(PrintWriter.class);
+        VelocityMonitor monitor = new VelocityMonitor(mockWriter);
+        int threadCount = 4;
+        int rowsPerThread = 10_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread(() -> {
+                monitor.generationStarting();
+                for (int row = 0; row < rowsPerThread; row++) {
+                    monitor.rowEmitted(null);
+                }
+            }));
+        }
+
+        //Act
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        monitor.endGeneration();
+
+        //Assert
+        Mockito.verify(mockWriter, times(1)).println("Number of rows | Velocity (rows/sec) | Velocity trend");
+        Mockito.verify(mockWriter).format(
+            eq("%-14d | %-19d | Finished"),
+            eq((long) threadCount * rowsPerThread),
+            any());
+    }
 }
@@ -16,12 +16,24 @@
 
 package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
 
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
 import static com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategyTester.bag;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 
 class ExhaustiveCombinationStrategyTests {
     private CombinationStrategyTester tester;
@@ -91,4 +103,79 @@ class ExhaustiveCombinationStrategyTests {
 
         tester.expectEmpty();
     }
+
+    @Test
+    void shouldVaryLastSequenceFastest() {
+        Field outer = createField("outer");
+        Field inner = createField("inner");
+
+        List<DataBag> results = new ExhaustiveCombinationStrategy().permute(Stream.of(
+            values(outer, 2),
+            values(inner, 3)))
+            .collect(Collectors.toList());
+
+        assertThat(results, equalTo(Arrays.asList(
+            combination(outer, 0, inner, 0),
+            combination(outer, 0, inner, 1),
+            combination(outer, 0, inner, 2),
+            combination(outer, 1, inner, 0),
+            combination(outer, 1, inner, 1),
+            combination(outer, 1, inner, 2))));
+    }
+
+    @Test
+    void shouldEvaluateInnerSequencesOnce() {
+        AtomicInteger innerEvaluations = new AtomicInteger();
+        Supplier<Stream<DataBag>> inner = values(createField("inner"), 3);
+
+        long combinations = new ExhaustiveCombinationStrategy().permute(Stream.of(
+            values(createField("outer"), 4),
+            () -> {
+                innerEvaluations.incrementAndGet();
+                return inner.get();
+            }))
+            .count();
+
+        assertThat(combinations, equalTo(12L));
+        assertThat(innerEvaluations.get(), equalTo(1));
+    }
+
+    @Test
+    void shouldCombineInnerSequencesTooLargeToMaterialise() {
+        long combinations = new ExhaustiveCombinationStrategy().permute(Stream.of(
+            values(createField("outer"), 2),
+            values(createField("inner"), ExhaustiveCombinationStrategy.MAX_MATERIALISED_BAGS + 1)))
+            .count();
+
+        assertThat(combinations, equalTo(2L * (ExhaustiveCombinationStrategy.MAX_MATERIALISED_BAGS + 1)));
+    }
+
+    @Test
+    void shouldGiveSameCombinationsInSameOrderWhenCombiningInParallel() {
+        Field outer = createField("outer");
+        Field first = createField("first");
+        Field second = createField("second");
+
+        List<DataBag> serial = new ExhaustiveCombinationStrategy().permute(Stream.of(
+            values(outer, 3),
+            values(first, 50),
+            values(second, 100)))
+            .collect(Collectors.toList());
+        List<DataBag> parallel = new ExhaustiveCombinationStrategy(4).permute(Stream.of(
+            values(outer, 3),
+            values(first, 50),
+            values(second, 100)))
+            .collect(Collectors.toList());
+
+        assertThat(parallel.size(), equalTo(15_000));
+        assertThat(parallel, equalTo(serial));
+    }
+
+    private static Supplier<Stream<DataBag>> values(Field field, int count) {
+        return () -> IntStream.range(0, count).mapToObj(value -> DataBagBuilder.of(field, value));
+    }
+
+    private static DataBag combination(Field outer, int outerValue, Field inner, int innerValue) {
+        return new DataBagBuilder().set(outer, outerValue).set(inner, innerValue).build();
+    }
 }
@@ -89,6 +89,33 @@ class DataBagTests {
             equalTo(4));
     }
 
+    @Test
+    void getShouldReturnValueForEqualField() {
+        // ARRANGE
+        DataBag objectUnderTest = new DataBagBuilder().set(createField("id"), 3).build();
+
+        // ACT / ASSERT
+        Assert.assertThat(
+            objectUnderTest.getFormattedValue(createField("id")),
+            equalTo(3));
+    }
+
+    @Test
+    void mergedDataBagsShouldBeEqualWhicheverOrderTheyAreMergedIn() {
+        // ARRANGE
+        DataBag idBag = new DataBagBuilder().set(createField("id"), 1).build();
+        DataBag priceBag = new DataBagBuilder().set(createField("price"), 2).build();
+        DataBag nameBag = new DataBagBuilder().set(createField("name"), "foo").build();
+
+        // ACT
+        DataBag merged = DataBag.merge(idBag, priceBag, nameBag);
+        DataBag mergedInReverse = DataBag.merge(nameBag, DataBag.merge(priceBag, idBag));
+
+        // ASSERT
+        Assert.assertThat(merged, equalTo(mergedInReverse));
+        Assert.assertThat(merged.hashCode(), equalTo(mergedInReverse.hashCode()));
+    }
+
     @Test
     void mergeShouldThrowIfDataBagsOverlap() {
         // ARRANGE
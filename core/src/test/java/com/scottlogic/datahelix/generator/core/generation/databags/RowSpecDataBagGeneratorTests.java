@@ -20,16 +20,19 @@ import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
 import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecGroup;
 import com.scottlogic.datahelix.generator.core.fieldspecs.RowSpec;
 import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
 import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.ExhaustiveCombinationStrategy;
 import com.scottlogic.datahelix.generator.core.generation.grouped.FieldSpecGroupValueGenerator;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.*;
 import static com.shazam.shazamcrest.MatcherAssert.assertThat;
 import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
@@ -93,6 +96,40 @@ class RowSpecDataBagGeneratorTests {
         verify(mockGeneratorFactory, times(3)).generate(any());
     }
 
+    @Test
+    void groupsAreReusedForTheSameRowSpec() {
+        RowSpecDataBagGenerator factory =
+            new RowSpecDataBagGenerator(mockGeneratorFactory, exhaustiveCombinationStrategy);
+        Map<Field, FieldSpec> map = new HashMap<Field, FieldSpec>() {{ put(field, fieldSpec); }};
+        RowSpec rowSpec = new RowSpec(fields, map, Collections.emptyList());
+        ArgumentCaptor<FieldSpecGroup> groups = ArgumentCaptor.forClass(FieldSpecGroup.class);
+
+        when(mockGeneratorFactory.generate(groups.capture()))
+            .thenReturn(Stream.of(dataBagValue), Stream.of(dataBagValue));
+
+        factory.createDataBags(rowSpec).collect(Collectors.toList());
+        factory.createDataBags(rowSpec).collect(Collectors.toList());
+
+        assertSame(groups.getAllValues().get(0), groups.getAllValues().get(1));
+    }
+
+    @Test
+    void groupsAreSharedByGeneratorsForTheSameRowSpec() {
+        Map<Field, FieldSpec> map = new HashMap<Field, FieldSpec>() {{ put(field, fieldSpec); }};
+        RowSpec rowSpec = new RowSpec(fields, map, Collections.emptyList());
+        ArgumentCaptor<FieldSpecGroup> groups = ArgumentCaptor.forClass(FieldSpecGroup.class);
+
+        when(mockGeneratorFactory.generate(groups.capture()))
+            .thenReturn(Stream.of(dataBagValue), Stream.of(dataBagValue));
+
+        new RowSpecDataBagGenerator(mockGeneratorFactory, exhaustiveCombinationStrategy)
+            .createDataBags(rowSpec).collect(Collectors.toList());
+        new RowSpecDataBagGenerator(mockGeneratorFactory, exhaustiveCombinationStrategy)
+            .createDataBags(rowSpec).collect(Collectors.toList());
+
+        assertSame(groups.getAllValues().get(0), groups.getAllValues().get(1));
+    }
+
     @Test
     void combinationStrategyIsCalled() {
         RowSpecDataBagGenerator factory =
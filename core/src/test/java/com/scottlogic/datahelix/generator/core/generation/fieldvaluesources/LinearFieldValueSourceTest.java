@@ -21,8 +21,15 @@ import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerat
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,4 +47,52 @@ class LinearFieldValueSourceTest {
         assertTrue(results.limit(100).allMatch(x -> x.intValue() >= 0 & x.intValue() < 5));
     }
 
+    @Test
+    public void generateAllValuesShouldGiveSameValuesInSameOrderWhenSplitAcrossThreads() {
+        LinearRestrictions<BigDecimal> restrictions = new LinearRestrictions<>(
+            new BigDecimal("-50.00"),
+            new BigDecimal("1000.00"),
+            new NumericGranularity(2));
+        LinearFieldValueSource<BigDecimal> source = new LinearFieldValueSource<>(restrictions, Collections.emptySet());
+
+        List<BigDecimal> sequential = source.generateAllValues().collect(Collectors.toList());
+        List<BigDecimal> parallel = source.generateAllValues().parallel().collect(Collectors.toList());
+
+        assertEquals(105001, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void generateAllValuesShouldSkipBlacklistedValuesWhateverTheirScale() {
+        LinearRestrictions<BigDecimal> restrictions = new LinearRestrictions<>(
+            BigDecimal.ZERO,
+            BigDecimal.valueOf(5),
+            new NumericGranularity(0));
+        Set<BigDecimal> blacklist = new HashSet<>(Arrays.asList(
+            new BigDecimal("1.0"), new BigDecimal("3"), new BigDecimal("3.70"), BigDecimal.valueOf(100)));
+        LinearFieldValueSource<BigDecimal> source = new LinearFieldValueSource<>(restrictions, blacklist);
+
+        List<Integer> values = source.generateAllValues().map(BigDecimal::intValueExact).collect(Collectors.toList());
+
+        assertEquals(Arrays.asList(0, 2, 4, 5), values);
+    }
+
+    @Test
+    public void linearSpliteratorShouldSplitRangeInHalf() {
+        LinearRestrictions<BigDecimal> restrictions = new LinearRestrictions<>(
+            BigDecimal.ZERO,
+            BigDecimal.valueOf(9999),
+            new NumericGranularity(0));
+        Spliterator<BigDecimal> spliterator = new LinearSpliterator<>(restrictions);
+
+        Spliterator<BigDecimal> prefix = spliterator.trySplit();
+
+        assertEquals(5000, prefix.estimateSize());
+        assertEquals(5000, spliterator.estimateSize());
+        List<BigDecimal> firstHalf = StreamSupport.stream(prefix, false).collect(Collectors.toList());
+        List<BigDecimal> secondHalf = StreamSupport.stream(spliterator, false).collect(Collectors.toList());
+        assertEquals(BigDecimal.valueOf(4999), firstHalf.get(firstHalf.size() - 1));
+        assertEquals(BigDecimal.valueOf(5000), secondHalf.get(0));
+    }
+
 }
\ No newline at end of file
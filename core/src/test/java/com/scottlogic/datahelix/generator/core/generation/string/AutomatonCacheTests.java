@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutomatonCacheTests {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void get_withSameRegexTwice_createsAutomatonOnce() {
+        AutomatonCache cache = new AutomatonCache("test", 10, 1_000);
+
+        Automaton first = cache.get("[a-c]{2}", regex -> AutomatonUtils.createAutomaton(regex, true));
+        Automaton second = cache.get("[a-c]{2}", regex -> fail("automaton should have been cached"));
+
+        assertSame(first, second);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void get_beyondMaximumAutomata_evictsLeastRecentlyUsed() {
+        AutomatonCache cache = new AutomatonCache("test", 2, 1_000);
+
+        cache.get("a", regex -> AutomatonUtils.createAutomaton(regex, true));
+        cache.get("b", regex -> AutomatonUtils.createAutomaton(regex, true));
+        cache.get("a", regex -> fail("automaton should have been cached"));
+        cache.get("c", regex -> AutomatonUtils.createAutomaton(regex, true));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        cache.get("a", regex -> fail("most recently used automaton should have been kept"));
+    }
+
+    @Test
+    void get_withAutomatonStoredByEarlierCache_readsItFromDirectory() {
+        AutomatonCache earlierRun = new AutomatonCache("test", 10, 1_000);
+        earlierRun.persistIn(tempDir);
+        earlierRun.get("[a-c]{2}", regex -> AutomatonUtils.createAutomaton(regex, true));
+
+        AutomatonCache laterRun = new AutomatonCache("test", 10, 1_000);
+        laterRun.persistIn(tempDir);
+        Automaton automaton = laterRun.get("[a-c]{2}", regex -> fail("automaton should have been read from disk"));
+
+        assertTrue(automaton.run("ab"));
+        assertFalse(automaton.run("abc"));
+        assertEquals(1, laterRun.getLoadCount());
+    }
+
+    @Test
+    void get_withStoredFileHoldingOtherClasses_createsAutomatonWithoutReadingThem() throws IOException {
+        AutomatonCache earlierRun = new AutomatonCache("test", 10, 1_000);
+        earlierRun.persistIn(tempDir);
+        earlierRun.get("[a-c]{2}", regex -> AutomatonUtils.createAutomaton(regex, true));
+        Path file = storedFile();
+        try (ObjectOutputStream output = new ObjectOutputStream(Files.newOutputStream(file))) {
+            output.writeObject("[a-c]{2}");
+            output.writeObject(new Tripwire());
+        }
+
+        AutomatonCache laterRun = new AutomatonCache("test", 10, 1_000);
+        laterRun.persistIn(tempDir);
+        Automaton automaton = laterRun.get("[a-c]{2}", regex -> AutomatonUtils.createAutomaton(regex, true));
+
+        assertTrue(automaton.run("ab"));
+        assertEquals(0, laterRun.getLoadCount());
+        assertFalse(Tripwire.read);
+    }
+
+    @Test
+    void get_withDirectory_namesFileAfterFormatVersionAndRegexHash() throws IOException {
+        AutomatonCache cache = new AutomatonCache("test", 10, 1_000);
+        cache.persistIn(tempDir);
+
+        cache.get("[a-c]{2}", regex -> AutomatonUtils.createAutomaton(regex, true));
+
+        assertTrue(storedFile().getFileName().toString().matches("test-v\\d+-[0-9a-f]{64}\\.automaton"));
+    }
+
+    private Path storedFile() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.collect(Collectors.toList()).get(0);
+        }
+    }
+
+    private static class Tripwire implements Serializable {
+        private static volatile boolean read;
+
+        private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+            read = true;
+            input.defaultReadObject();
+        }
+    }
+}
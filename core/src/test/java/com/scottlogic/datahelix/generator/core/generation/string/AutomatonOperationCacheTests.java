@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutomatonOperationCacheTests {
+    private final Automaton letters = AutomatonUtils.createAutomaton("[a-c]+", true);
+    private final Automaton pairs = AutomatonUtils.createAutomaton(".{2}", true);
+
+    @Test
+    void intersection_withOperandsInEitherOrder_isComputedOnce() {
+        AutomatonOperationCache cache = new AutomatonOperationCache(10);
+
+        Automaton first = cache.intersection(letters, pairs);
+        Automaton second = cache.intersection(pairs, letters);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertTrue(first.run("ab"));
+        assertFalse(first.run("abc"));
+    }
+
+    @Test
+    void complement_isComputedOnceAndDoesNotChangeOperand() {
+        AutomatonOperationCache cache = new AutomatonOperationCache(10);
+
+        Automaton first = cache.complement(letters, pairs);
+        Automaton second = cache.complement(letters, pairs);
+
+        assertSame(first, second);
+        assertTrue(first.run("zz"));
+        assertFalse(first.run("ab"));
+        assertTrue(letters.run("ab"));
+    }
+
+    @Test
+    void intersection_beyondMaximumResults_evictsLeastRecentlyUsed() {
+        AutomatonOperationCache cache = new AutomatonOperationCache(1);
+
+        Automaton first = cache.intersection(letters, pairs);
+        cache.union(letters, pairs);
+
+        assertNotSame(first, cache.intersection(letters, pairs));
+        assertEquals(3, cache.getMissCount());
+    }
+}
@@ -98,6 +98,17 @@ class RegexStringGeneratorTests {
         expectOrderedResults("xyzxyz", "xyzxyzxyz");
     }
 
+    @Test
+    void generateAllValuesShouldGiveSameValuesInSameOrderWhenSplitAcrossThreads() {
+        StringGenerator generator = new RegexStringGenerator("^ID-([a-c]\\d{4}x?|q\\d{3})?$", true);
+
+        List<String> sequential = generator.generateAllValues().collect(Collectors.toList());
+        List<String> parallel = generator.generateAllValues().parallel().collect(Collectors.toList());
+
+        assertThat(sequential.size(), Is.is(61001));
+        assertThat(parallel, Is.is(sequential));
+    }
+
     @Test
     void shouldCorrectlyReplaceCharacterGroups() {
         givenRegex("^\\d$");
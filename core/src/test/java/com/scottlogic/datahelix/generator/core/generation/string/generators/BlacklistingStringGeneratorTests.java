@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string.generators;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BlacklistingStringGeneratorTests {
+    @Test
+    void generateAllValues_skipsBlacklistedValues() {
+        StringGenerator mockGenerator = mock(StringGenerator.class);
+        when(mockGenerator.generateAllValues()).thenReturn(Stream.of("a", "b", "c", "d"));
+        BlacklistingStringGenerator generator =
+            new BlacklistingStringGenerator(mockGenerator, new HashSet<>(Arrays.asList("b", "d", "e")));
+
+        List<String> values = generator.generateAllValues().collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("a", "c"), values);
+    }
+
+    @Test
+    void generateRandomValues_drawsAgainForBlacklistedValues() {
+        RandomNumberGenerator randomNumberGenerator = mock(RandomNumberGenerator.class);
+        StringGenerator mockGenerator = mock(StringGenerator.class);
+        when(mockGenerator.generateRandomValues(randomNumberGenerator)).thenReturn(Stream.of("b", "b", "a", "b", "c"));
+        BlacklistingStringGenerator generator =
+            new BlacklistingStringGenerator(mockGenerator, Collections.singleton("b"));
+
+        List<String> values = generator.generateRandomValues(randomNumberGenerator).limit(2).collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("a", "c"), values);
+    }
+
+    @Test
+    void matches_withBlacklistedString_returnsFalse() {
+        StringGenerator mockGenerator = mock(StringGenerator.class);
+        when(mockGenerator.matches("penguins")).thenReturn(true);
+        BlacklistingStringGenerator generator =
+            new BlacklistingStringGenerator(mockGenerator, Collections.singleton("penguins"));
+
+        assertFalse(generator.matches("penguins"));
+    }
+
+    @Test
+    void matches_withOtherString_returnsInnerResult() {
+        StringGenerator mockGenerator = mock(StringGenerator.class);
+        when(mockGenerator.matches("penguins")).thenReturn(true);
+        BlacklistingStringGenerator generator =
+            new BlacklistingStringGenerator(mockGenerator, Collections.singleton("puffins"));
+
+        assertTrue(generator.matches("penguins"));
+    }
+}
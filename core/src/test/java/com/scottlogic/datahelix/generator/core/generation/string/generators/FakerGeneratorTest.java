@@ -78,4 +78,42 @@ class FakerGeneratorTest {
 
         assertTrue(results.allMatch(str -> str.length() <= length));
     }
+
+    @Test
+    void generateRandomValues_withSameSeed_generatesSameValues() {
+        StringRestrictions restrictions = StringRestrictionsFactory.forMaxLength(Defaults.MAX_STRING_LENGTH);
+        RegexStringGenerator regex = (RegexStringGenerator) restrictions.createGenerator();
+        Function<Faker, String> function = f -> f.name().firstName();
+
+        List<String> first = new FakerGenerator(regex, function)
+            .generateRandomValues(new JavaUtilRandomNumberGenerator(42))
+            .limit(20)
+            .collect(Collectors.toList());
+        List<String> second = new FakerGenerator(regex, function)
+            .generateRandomValues(new JavaUtilRandomNumberGenerator(42))
+            .limit(20)
+            .collect(Collectors.toList());
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    void generateRandomValues_withGeneratorsInTurn_generatesEachGeneratorsOwnValues() {
+        StringRestrictions restrictions = StringRestrictionsFactory.forMaxLength(Defaults.MAX_STRING_LENGTH);
+        RegexStringGenerator regex = (RegexStringGenerator) restrictions.createGenerator();
+        Function<Faker, String> function = f -> f.name().firstName();
+        FakerGenerator generator = new FakerGenerator(regex, function);
+        JavaUtilRandomNumberGenerator first = new JavaUtilRandomNumberGenerator(42);
+        JavaUtilRandomNumberGenerator second = new JavaUtilRandomNumberGenerator(7);
+
+        List<String> firstValues = generator.generateRandomValues(first).limit(5).collect(Collectors.toList());
+        generator.generateRandomValues(second).limit(5).collect(Collectors.toList());
+        firstValues.addAll(generator.generateRandomValues(first).limit(5).collect(Collectors.toList()));
+
+        List<String> expected = new FakerGenerator(regex, function)
+            .generateRandomValues(new JavaUtilRandomNumberGenerator(42))
+            .limit(10)
+            .collect(Collectors.toList());
+        assertEquals(expected, firstValues);
+    }
 }
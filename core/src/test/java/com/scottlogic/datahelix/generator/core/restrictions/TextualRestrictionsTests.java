@@ -16,16 +16,23 @@
 
 package com.scottlogic.datahelix.generator.core.restrictions;
 
+import com.scottlogic.datahelix.generator.core.generation.string.generators.BlacklistingStringGenerator;
+import com.scottlogic.datahelix.generator.core.generation.string.generators.NoStringsStringGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.RegexStringGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.StringGenerator;
 import com.scottlogic.datahelix.generator.core.restrictions.string.StringRestrictions;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.scottlogic.datahelix.generator.core.helpers.StringGeneratorHelper.*;
 import static org.hamcrest.Matchers.*;
@@ -540,6 +547,42 @@ class TextualRestrictionsTests {
         Assert.assertThat(intersect, equalTo(Optional.empty()));
     }
 
+    @Test
+    void createFieldValueSource_withLargeBlacklistCoveringEveryMatchingString_shouldCreateNoStrings() {
+        StringRestrictions restrictions = matchingRegex("[0-9]{3}", false);
+        Set<String> blacklist = threeDigitStrings().collect(Collectors.toSet());
+
+        StringGenerator generator = (StringGenerator) restrictions.createFieldValueSource(blacklist);
+
+        Assert.assertThat(generator, instanceOf(NoStringsStringGenerator.class));
+    }
+
+    @Test
+    void createFieldValueSource_withLargeBlacklistCoveringAllButOneMatchingString_shouldGenerateRandomlyTheRemainingString() {
+        StringRestrictions restrictions = matchingRegex("[0-9]{3}", false);
+        Set<String> blacklist = threeDigitStrings().filter(string -> !string.equals("123")).collect(Collectors.toSet());
+
+        StringGenerator generator = (StringGenerator) restrictions.createFieldValueSource(blacklist);
+
+        Assert.assertThat(
+            generator.generateRandomValues(new JavaUtilRandomNumberGenerator()).limit(3).collect(Collectors.toList()),
+            contains("123", "123", "123"));
+    }
+
+    @Test
+    void createFieldValueSource_withLargeBlacklistAndInfiniteMatchingStrings_shouldLookUpTheBlacklist() {
+        StringRestrictions restrictions = matchingRegex("[0-9]+", false);
+        Set<String> blacklist = threeDigitStrings().collect(Collectors.toSet());
+
+        StringGenerator generator = (StringGenerator) restrictions.createFieldValueSource(blacklist);
+
+        Assert.assertThat(generator, instanceOf(BlacklistingStringGenerator.class));
+    }
+
+    private static Stream<String> threeDigitStrings() {
+        return IntStream.range(0, 1000).mapToObj(value -> String.format("%03d", value));
+    }
+
     private static StringRestrictions ofLength(int length, boolean negate){
         return new StringRestrictions(
             negate ? null : length,
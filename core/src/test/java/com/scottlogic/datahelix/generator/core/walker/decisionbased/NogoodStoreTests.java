@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.walker.decisionbased;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
+import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
+import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.InSetConstraint;
+import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.IsNullConstraint;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+import com.scottlogic.datahelix.generator.common.SetUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NogoodStoreTests {
+    private final Field fieldA = createField("A");
+    private final Field fieldB = createField("B");
+    private final AtomicConstraint isNull = new IsNullConstraint(fieldA);
+    private final AtomicConstraint isNotNull = new IsNullConstraint(fieldA).negate();
+    private final AtomicConstraint isInSet = new InSetConstraint(fieldA, DistributedList.uniform(Collections.singletonList("1")));
+    private final AtomicConstraint isNotInSet = new InSetConstraint(fieldA, DistributedList.uniform(Collections.singletonList("2"))).negate();
+
+    private final NogoodStore nogoods = new NogoodStore(new ConstraintReducer(new FieldSpecMerger()));
+
+    @Test
+    void learn_withContradictoryConstraints_recognisesAnySupersetOfTheContradiction() {
+        nogoods.learn(fieldA, Arrays.asList(isNull, isInSet, isNotNull));
+
+        assertTrue(nogoods.isKnownContradiction(fieldA, SetUtils.setOf(isNull, isNotNull, isNotInSet)));
+    }
+
+    @Test
+    void learn_withContradictoryConstraints_keepsOnlyTheConstraintsThatContradict() {
+        nogoods.learn(fieldA, Arrays.asList(isNull, isInSet, isNotNull));
+
+        assertFalse(nogoods.isKnownContradiction(fieldA, SetUtils.setOf(isNull, isInSet)));
+        assertFalse(nogoods.isKnownContradiction(fieldA, SetUtils.setOf(isInSet, isNotNull)));
+    }
+
+    @Test
+    void learn_withConsistentConstraints_recordsNothing() {
+        nogoods.learn(fieldA, Arrays.asList(isInSet, isNotNull));
+
+        assertFalse(nogoods.isKnownContradiction(fieldA, SetUtils.setOf(isInSet, isNotNull)));
+    }
+
+    @Test
+    void isKnownContradiction_forAnotherField_isFalse() {
+        nogoods.learn(fieldA, Arrays.asList(isNull, isNotNull));
+
+        assertFalse(nogoods.isKnownContradiction(fieldB, SetUtils.setOf(isNull, isNotNull)));
+    }
+}
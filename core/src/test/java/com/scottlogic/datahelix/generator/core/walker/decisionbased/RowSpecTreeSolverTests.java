@@ -23,6 +23,7 @@ import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
 import com.scottlogic.datahelix.generator.core.fieldspecs.*;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+import com.scottlogic.datahelix.generator.core.walker.pruner.Merged;
 import com.scottlogic.datahelix.generator.core.walker.pruner.TreePruner;
 import org.junit.jupiter.api.Test;
 
@@ -30,6 +31,8 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
 import static com.shazam.shazamcrest.MatcherAssert.assertThat;
 import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
@@ -110,4 +113,64 @@ class RowSpecTreeSolverTests {
 
         assertThat(rowSpecs, sameBeanAs(expectedRowSpecs));
     }
+
+    @Test
+    void sampleRowSpec_whenSampledRepeatedly_returnsFirstRowSpecSolvedOnce() {
+        //Arrange
+        ConstraintNode root = TestConstraintNodeBuilder.constraintNode()
+            .withDecision(
+                TestConstraintNodeBuilder.constraintNode()
+                    .where(fieldB).isNull(),
+                TestConstraintNodeBuilder.constraintNode()
+                    .where(fieldB).isInSet("1", "2", "3"))
+            .build();
+        DecisionTree tree = new DecisionTree(root, fields);
+
+        //Act
+        RowSpec first = rowSpecTreeSolver.sampleRowSpec(tree).get();
+        RowSpec second = rowSpecTreeSolver.sampleRowSpec(tree).get();
+
+        //Assert
+        assertThat(first, sameBeanAs(rowSpecTreeSolver.createRowSpecs(tree).findFirst().get()));
+        assertSame(first, second);
+    }
+
+    @Test
+    void createRowSpecs_whenContradictionRecursInAnotherBranch_doesNotPruneItAgain() {
+        //Arrange
+        List<ConstraintNode> contradictoryNodes = new ArrayList<>();
+        TreePruner recordingPruner = new TreePruner(fieldSpecMerger, constraintReducer, new FieldSpecHelper()) {
+            @Override
+            public Merged<ConstraintNode> pruneConstraintNode(ConstraintNode constraintNode, Map<Field, FieldSpec> fieldSpecs) {
+                Merged<ConstraintNode> pruned = super.pruneConstraintNode(constraintNode, fieldSpecs);
+                if (pruned.isContradictory()) {
+                    contradictoryNodes.add(constraintNode);
+                }
+                return pruned;
+            }
+        };
+        RowSpecTreeSolver solver = new RowSpecTreeSolver(constraintReducer, recordingPruner, optionPicker);
+
+        ConstraintNode root = TestConstraintNodeBuilder.constraintNode()
+            .where(fieldA).isNotNull()
+            .withDecision(
+                TestConstraintNodeBuilder.constraintNode()
+                    .where(fieldA).isNull(),
+                TestConstraintNodeBuilder.constraintNode()
+                    .where(fieldB).isInSet("2", "3"))
+            .withDecision(
+                TestConstraintNodeBuilder.constraintNode()
+                    .where(fieldA).isNull(),
+                TestConstraintNodeBuilder.constraintNode()
+                    .where(fieldB).isInSet("2"))
+            .build();
+        DecisionTree tree = new DecisionTree(root, fields);
+
+        //Act
+        List<RowSpec> rowSpecs = solver.createRowSpecs(tree).collect(Collectors.toList());
+
+        //Assert
+        assertEquals(1, rowSpecs.size());
+        assertEquals(1, contradictoryNodes.size());
+    }
 }
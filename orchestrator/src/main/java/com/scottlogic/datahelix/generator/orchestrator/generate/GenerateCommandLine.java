@@ -22,6 +22,8 @@ import com.google.inject.Module;
 import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
+import com.scottlogic.datahelix.generator.core.config.detail.RowOrdering;
+import com.scottlogic.datahelix.generator.core.config.detail.Shard;
 import com.scottlogic.datahelix.generator.core.config.detail.VisualiserLevel;
 import com.scottlogic.datahelix.generator.orchestrator.CommonOptionInfo;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllConfigSource;
@@ -32,9 +34,12 @@ import picocli.CommandLine;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 
 import static com.scottlogic.datahelix.generator.common.util.Defaults.DEFAULT_MAX_ROWS;
+import static com.scottlogic.datahelix.generator.common.util.Defaults.DEFAULT_OUTPUT_THREADS;
+import static com.scottlogic.datahelix.generator.common.util.Defaults.DEFAULT_THREADS;
 import static com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType.MINIMAL;
 import static com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType.RANDOM;
 import static com.scottlogic.datahelix.generator.output.guice.OutputFormat.CSV;
@@ -123,6 +128,38 @@ public class GenerateCommandLine implements AllConfigSource, Callable<Integer> {
         description = "Defines the maximum number of rows that should be generated")
     private long maxRows = DEFAULT_MAX_ROWS;
 
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--threads"},
+        description = "Defines the number of threads used to generate data. In RANDOM mode each thread generates whole rows, otherwise the independent partitions of the profile are generated concurrently")
+    private int threads = DEFAULT_THREADS;
+
+    @CommandLine.Option(
+        names = {"--row-ordering"},
+        description = "Determines whether rows from multiple RANDOM mode threads are emitted in a reproducible order (${COMPLETION-CANDIDATES})")
+    private RowOrdering rowOrdering = RowOrdering.ORDERED;
+
+    @CommandLine.Option(
+        names = {"--shard"},
+        description = "Generates only the given slice of the rows, in the form <index>/<count> e.g. 3/16. The shards 1/<count> to <count>/<count> together produce the same rows as a single run")
+    private String shard = Shard.WHOLE.toString();
+
+    @CommandLine.Option(
+        names = {"--seed"},
+        description = "Seeds the random number generators, so that RANDOM mode generates the same rows every time. If not given a seed is chosen and reported at the end of generation")
+    private Long seed;
+
+    @CommandLine.Option(
+        names = {"--regex-cache-directory"},
+        description = "Stores the automata created from regular expressions in this directory, so that later runs with the same regular expressions can read them instead of creating them again")
+    private Path regexCacheDirectory;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--output-threads"},
+        description = "Defines the number of threads used to format rows while they are being generated and written. 0 writes each row on the generating thread")
+    private int outputThreads = DEFAULT_OUTPUT_THREADS;
+
     @SuppressWarnings("FieldCanBeLocal")
     @CommandLine.Option(
         names = {"--quiet"},
@@ -208,6 +245,36 @@ public class GenerateCommandLine implements AllConfigSource, Callable<Integer> {
         return maxRows;
     }
 
+    @Override
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    public RowOrdering getRowOrdering() {
+        return rowOrdering;
+    }
+
+    @Override
+    public Shard getShard() {
+        return Shard.parse(shard);
+    }
+
+    @Override
+    public Optional<Long> getSeed() {
+        return Optional.ofNullable(seed);
+    }
+
+    @Override
+    public Optional<Path> getRegexCacheDirectory() {
+        return Optional.ofNullable(regexCacheDirectory);
+    }
+
+    @Override
+    public int getOutputThreads() {
+        return outputThreads;
+    }
+
     public OutputFormat getOutputFormat() {
         return outputFormat;
     }
@@ -33,15 +33,17 @@ public class GenerateExecute {
     private final ProfileReader profileReader;
     private final DataGenerator dataGenerator;
     private final DataGeneratorMonitor monitor;
+    private final OutputPipeline outputPipeline;
 
 
     @Inject
     GenerateExecute(DataGenerator dataGenerator, SingleDatasetOutputTarget singleDatasetOutputTarget,
-                    ProfileReader profileReader,DataGeneratorMonitor monitor) {
+                    ProfileReader profileReader,DataGeneratorMonitor monitor, OutputPipeline outputPipeline) {
         this.dataGenerator = dataGenerator;
         this.singleDatasetOutputTarget = singleDatasetOutputTarget;
         this.profileReader = profileReader;
         this.monitor = monitor;
+        this.outputPipeline = outputPipeline;
     }
 
     public void execute() throws IOException {
@@ -55,13 +57,7 @@ public class GenerateExecute {
         singleDatasetOutputTarget.validate();
 
         try (DataSetWriter writer = singleDatasetOutputTarget.openWriter(profile.getFields())) {
-            generatedDataItems.forEach(row -> {
-                try {
-                    writer.writeRow(row);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            });
+            outputPipeline.write(generatedDataItems, profile.getFields(), writer);
         }
         monitor.endGeneration();
     }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.orchestrator.generate;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.common.util.BufferedStream;
+import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
+import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes generated rows to a {@link DataSetWriter}, optionally through a bounded pipeline so that generation,
+ * formatting and writing can overlap.
+ * <p>
+ * When enabled, rows are generated on their own thread and collected into batches. Each batch is formatted on one of
+ * the encoder threads, and the batches are written in their original order by the calling thread. When the writer
+ * falls behind the buffer fills up and generation waits for it, which is reported to the monitor.
+ */
+public class OutputPipeline {
+    private static final int BATCH_SIZE = 256;
+    private static final int BUFFERED_BATCHES = 16;
+    private static final CompletableFuture<List<GeneratedObject>> END_OF_ROWS =
+        CompletableFuture.completedFuture(Collections.emptyList());
+
+    private final int encoderThreads;
+    private final DataGeneratorMonitor monitor;
+
+    @Inject
+    public OutputPipeline(@Named("config:outputThreads") int encoderThreads, DataGeneratorMonitor monitor) {
+        this.encoderThreads = encoderThreads;
+        this.monitor = monitor;
+    }
+
+    public void write(Stream<GeneratedObject> rows, Fields fields, DataSetWriter writer) throws IOException {
+        if (encoderThreads < 1) {
+            rows.forEach(row -> {
+                try {
+                    writer.writeRow(row);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            return;
+        }
+
+        BlockingQueue<CompletableFuture<List<GeneratedObject>>> buffer = new ArrayBlockingQueue<>(BUFFERED_BATCHES);
+        ExecutorService encoders = BufferedStream.newDaemonThreadPool(encoderThreads, "output-encoder");
+        ExecutorService generator = BufferedStream.newDaemonThreadPool(1, "output-generator");
+        try {
+            generator.execute(() -> generateBatches(rows, fields, encoders, buffer));
+            writeBatches(buffer, writer);
+        } finally {
+            generator.shutdownNow();
+            encoders.shutdownNow();
+        }
+    }
+
+    private void generateBatches(
+        Stream<GeneratedObject> rows,
+        Fields fields,
+        Executor encoders,
+        BlockingQueue<CompletableFuture<List<GeneratedObject>>> buffer) {
+        List<GeneratedObject> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            try {
+                Iterator<GeneratedObject> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    batch.add(iterator.next());
+                    if (batch.size() == BATCH_SIZE) {
+                        enqueue(buffer, encode(batch, fields, encoders));
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    enqueue(buffer, encode(batch, fields, encoders));
+                }
+                enqueue(buffer, END_OF_ROWS);
+            } catch (RuntimeException | Error e) {
+                // write the rows generated before the failure, as happens when writing on the generating thread
+                if (!batch.isEmpty()) {
+                    enqueue(buffer, encode(batch, fields, encoders));
+                }
+                CompletableFuture<List<GeneratedObject>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                enqueue(buffer, failed);
+            }
+        } catch (InterruptedException e) {
+            // the writer has stopped, nothing is waiting for any more rows
+        }
+    }
+
+    private void enqueue(
+        BlockingQueue<CompletableFuture<List<GeneratedObject>>> buffer,
+        CompletableFuture<List<GeneratedObject>> batch) throws InterruptedException {
+        if (buffer.offer(batch)) {
+            return;
+        }
+
+        long waitStarted = System.nanoTime();
+        buffer.put(batch);
+        monitor.outputBufferFull(System.nanoTime() - waitStarted);
+    }
+
+    private static CompletableFuture<List<GeneratedObject>> encode(
+        List<GeneratedObject> batch,
+        Fields fields,
+        Executor encoders) {
+        return CompletableFuture.supplyAsync(
+            () -> batch.stream()
+                .map(row -> new FormattedRow(row, fields))
+                .collect(Collectors.toList()),
+            encoders);
+    }
+
+    private static void writeBatches(
+        BlockingQueue<CompletableFuture<List<GeneratedObject>>> buffer,
+        DataSetWriter writer) throws IOException {
+        while (true) {
+            CompletableFuture<List<GeneratedObject>> batch = take(buffer);
+            if (batch == END_OF_ROWS) {
+                return;
+            }
+
+            for (GeneratedObject row : join(batch)) {
+                writer.writeRow(row);
+            }
+        }
+    }
+
+    private static CompletableFuture<List<GeneratedObject>> take(
+        BlockingQueue<CompletableFuture<List<GeneratedObject>>> buffer) {
+        try {
+            return buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for generated rows", e);
+        }
+    }
+
+    private static List<GeneratedObject> join(CompletableFuture<List<GeneratedObject>> batch) {
+        try {
+            return batch.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /** A row whose output values have already been formatted, so that writing it does no further formatting. */
+    private static class FormattedRow implements GeneratedObject {
+        private final Map<Field, Object> formattedValues = new HashMap<>();
+
+        FormattedRow(GeneratedObject row, Fields fields) {
+            fields.getExternalStream().forEach(field -> formattedValues.put(field, row.getFormattedValue(field)));
+        }
+
+        @Override
+        public Object getFormattedValue(Field field) {
+            return formattedValues.get(field);
+        }
+    }
+}
@@ -26,6 +26,8 @@ import picocli.CommandLine;
 import java.io.IOException;
 import java.util.List;
 
+import static com.scottlogic.datahelix.generator.common.util.Defaults.DEFAULT_THREADS;
+
 @CommandLine.Command(
     name = "violate",
     description = "Produces a decision tree in DOT format for the specified profile.",
@@ -51,8 +53,18 @@ public class ViolateCommandLine extends GenerateCommandLine implements ViolateCo
         description = "Choose types of constraint should not be violated")
     private List<ConstraintType> constraintsToNotViolate;
 
+    @CommandLine.Option(
+        names = {"--violation-threads"},
+        description = "Defines the number of violated profiles that are generated and written concurrently")
+    private int violationThreads = DEFAULT_THREADS;
+
     public List<ConstraintType> getConstraintsToNotViolate() {
         return constraintsToNotViolate;
     }
 
+    @Override
+    public int getViolationThreads() {
+        return violationThreads;
+    }
+
 }
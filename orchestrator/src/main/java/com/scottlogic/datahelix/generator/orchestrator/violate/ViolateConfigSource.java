@@ -23,4 +23,5 @@ import java.util.List;
 
 public interface ViolateConfigSource extends AllConfigSource {
     List<ConstraintType> getConstraintsToNotViolate();
+    int getViolationThreads();
 }
@@ -17,9 +17,14 @@
 package com.scottlogic.datahelix.generator.orchestrator.violate;
 
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.util.BufferedStream;
 import com.scottlogic.datahelix.generator.common.util.FileUtils;
+import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.generation.DataGenerator;
+import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
 import com.scottlogic.datahelix.generator.core.profile.Profile;
 import com.scottlogic.datahelix.generator.orchestrator.violate.manifest.ManifestWriter;
 import com.scottlogic.datahelix.generator.orchestrator.violate.violator.ProfileViolator;
@@ -30,31 +35,44 @@ import com.scottlogic.datahelix.generator.profile.reader.ProfileReader;
 
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 public class ViolateExecute {
     private final OutputTargetFactory outputTargetFactory;
     private final ProfileViolator profileViolator;
     private final DataGenerator dataGenerator;
+    private final DataGeneratorMonitor monitor;
     private final ViolateOutputValidator violateOutputValidator;
     private final ManifestWriter manifestWriter;
     private final ProfileReader profileReader;
+    private final DataGenerationType generationType;
+    private final int violationThreads;
 
     @Inject
     ViolateExecute(
         OutputTargetFactory outputTargetFactory,
         ProfileViolator profileViolator,
         DataGenerator dataGenerator,
+        DataGeneratorMonitor monitor,
         ViolateOutputValidator violateOutputValidator,
         ManifestWriter manifestWriter,
-        ProfileReader profileReader) {
+        ProfileReader profileReader,
+        DataGenerationType generationType,
+        @Named("config:violationThreads") int violationThreads) {
         this.outputTargetFactory = outputTargetFactory;
         this.profileViolator = profileViolator;
         this.dataGenerator = dataGenerator;
+        this.monitor = monitor;
         this.violateOutputValidator = violateOutputValidator;
         this.manifestWriter = manifestWriter;
         this.profileReader = profileReader;
+        this.generationType = generationType;
+        this.violationThreads = violationThreads;
     }
 
     public void execute() throws IOException {
@@ -72,12 +90,87 @@ public class ViolateExecute {
 
         DecimalFormat intFormatter = FileUtils.getDecimalFormat(violatedProfiles.size());
 
+        if (violationThreads <= 1 || drawFromSharedRandomNumbers(violatedProfiles)) {
+            generateSerially(profile, violatedProfiles, intFormatter);
+        } else {
+            generateConcurrently(profile, violatedProfiles, intFormatter);
+        }
+
+        // every dataset is reported on together, as the monitor is shared by the whole run
+        monitor.endGeneration();
+    }
+
+    /**
+     * Random rows are generated in blocks seeded from the run's seed, so each dataset is the same whichever thread
+     * generates it. Profiles with unique fields are walked with the single random number generator of the run
+     * instead, so their datasets are only reproducible when generated one after another.
+     */
+    private boolean drawFromSharedRandomNumbers(List<ViolatedProfile> violatedProfiles) {
+        return generationType == DataGenerationType.RANDOM && violatedProfiles.stream()
+            .anyMatch(violatedProfile -> violatedProfile.getFields().stream().anyMatch(Field::isUnique));
+    }
+
+    private void generateSerially(
+        Profile profile,
+        List<ViolatedProfile> violatedProfiles,
+        DecimalFormat intFormatter) throws IOException
+    {
         int filename = 1;
         for (Profile violatedProfile : violatedProfiles) {
-            SingleDatasetOutputTarget outputTarget =
-                outputTargetFactory.create(intFormatter.format(filename++));
-            Stream<GeneratedObject> generatedObjectStream = dataGenerator.generateData(violatedProfile);
-            outputData(profile, generatedObjectStream, outputTarget);
+            generateDataset(profile, violatedProfile, intFormatter.format(filename++));
+        }
+    }
+
+    private void generateConcurrently(
+        Profile profile,
+        List<ViolatedProfile> violatedProfiles,
+        DecimalFormat intFormatter) throws IOException
+    {
+        // each violated profile is generated and written independently, the file names still follow the manifest
+        ExecutorService executor = BufferedStream.newDaemonThreadPool(violationThreads, "violation-generator");
+        try {
+            List<Future<Void>> datasets = new ArrayList<>();
+            int filename = 1;
+            for (Profile violatedProfile : violatedProfiles) {
+                String name = intFormatter.format(filename++);
+                datasets.add(executor.submit(() -> {
+                    generateDataset(profile, violatedProfile, name);
+                    return null;
+                }));
+            }
+
+            for (Future<Void> dataset : datasets) {
+                awaitDataset(dataset);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void generateDataset(Profile profile, Profile violatedProfile, String name) throws IOException {
+        SingleDatasetOutputTarget outputTarget = outputTargetFactory.create(name);
+        Stream<GeneratedObject> generatedObjectStream = dataGenerator.generateData(violatedProfile);
+        outputData(profile, generatedObjectStream, outputTarget);
+    }
+
+    private static void awaitDataset(Future<Void> dataset) throws IOException {
+        try {
+            dataset.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating violation datasets", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
         }
     }
 
@@ -18,6 +18,7 @@ package com.scottlogic.datahelix.generator.orchestrator.violate;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllConfigSource;
 import com.scottlogic.datahelix.generator.core.violations.filters.ViolationFilter;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllModule;
@@ -38,6 +39,10 @@ public class ViolateModule extends AbstractModule {
 
         bind(new TypeLiteral<List<ViolationFilter>>(){}).toProvider(ViolationFiltersProvider.class);
 
+        bind(int.class)
+            .annotatedWith(Names.named("config:violationThreads"))
+            .toInstance(configSource.getViolationThreads());
+
         install(new AllModule(configSource));
     }
 }
@@ -20,6 +20,8 @@ import com.google.inject.Inject;
 import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
+import com.scottlogic.datahelix.generator.core.config.detail.RowOrdering;
+import com.scottlogic.datahelix.generator.core.config.detail.Shard;
 import com.scottlogic.datahelix.generator.core.config.detail.VisualiserLevel;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllConfigSource;
 import com.scottlogic.datahelix.generator.orchestrator.violate.ViolateConfigSource;
@@ -29,6 +31,7 @@ import com.scottlogic.datahelix.generator.profile.dtos.constraints.ConstraintTyp
 import java.io.File;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 
 public class CucumberGenerationConfigSource implements AllConfigSource, ViolateConfigSource {
     private final CucumberTestState state;
@@ -53,6 +56,11 @@ public class CucumberGenerationConfigSource implements AllConfigSource, ViolateC
         return state.getConstraintsToNotViolate();
     }
 
+    @Override
+    public int getViolationThreads() {
+        return 1;
+    }
+
     @Override
     public MonitorType getMonitorType() {
         return MonitorType.QUIET;
@@ -63,6 +71,31 @@ public class CucumberGenerationConfigSource implements AllConfigSource, ViolateC
         return state.maxRows;
     }
 
+    @Override
+    public int getThreads() {
+        return 1;
+    }
+
+    @Override
+    public RowOrdering getRowOrdering() {
+        return RowOrdering.ORDERED;
+    }
+
+    @Override
+    public Shard getShard() {
+        return Shard.WHOLE;
+    }
+
+    @Override
+    public Optional<Long> getSeed() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Path> getRegexCacheDirectory() {
+        return Optional.empty();
+    }
+
     @Override
     public Path getOutputPath() {
         return new File("mockFilePath").toPath();
@@ -88,6 +121,11 @@ public class CucumberGenerationConfigSource implements AllConfigSource, ViolateC
         return false;
     }
 
+    @Override
+    public int getOutputThreads() {
+        return 0;
+    }
+
     @Override
     public OutputFormat getOutputFormat() {
         return null;
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.orchestrator.generate;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
+import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class OutputPipelineTests {
+    private final Field field = createField("field");
+    private final Fields fields = new Fields(Collections.singletonList(field));
+    private final DataGeneratorMonitor monitor = mock(DataGeneratorMonitor.class);
+
+    @Test
+    void write_withoutEncoderThreads_writesEveryRowInOrder() throws Exception {
+        RecordingWriter writer = new RecordingWriter(0);
+
+        new OutputPipeline(0, monitor).write(rows(1000), fields, writer);
+
+        assertEquals(values(1000), writer.values);
+    }
+
+    @Test
+    void write_withEncoderThreads_writesEveryRowInOrder() throws Exception {
+        RecordingWriter writer = new RecordingWriter(0);
+
+        new OutputPipeline(3, monitor).write(rows(10_000), fields, writer);
+
+        assertEquals(values(10_000), writer.values);
+    }
+
+    @Test
+    void write_whenGenerationFails_rethrowsAfterWritingTheRowsBeforeTheFailure() {
+        RecordingWriter writer = new RecordingWriter(0);
+        Stream<GeneratedObject> failingRows = Stream.concat(
+            rows(10),
+            Stream.<GeneratedObject>of(f -> null).peek(row -> {
+                throw new IllegalStateException("generation failed");
+            }));
+
+        assertThrows(
+            IllegalStateException.class,
+            () -> new OutputPipeline(2, monitor).write(failingRows, fields, writer));
+        assertEquals(values(10), writer.values);
+    }
+
+    @Test
+    void write_whenWriterIsSlowerThanGeneration_reportsTheFullBufferToTheMonitor() throws Exception {
+        RecordingWriter writer = new RecordingWriter(500);
+
+        new OutputPipeline(1, monitor).write(rows(10_000), fields, writer);
+
+        assertEquals(values(10_000), writer.values);
+        verify(monitor, atLeastOnce()).outputBufferFull(anyLong());
+    }
+
+    private Stream<GeneratedObject> rows(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> (GeneratedObject) f -> f.equals(field) ? i : null);
+    }
+
+    private static List<Object> values(int count) {
+        return IntStream.range(0, count).boxed().collect(Collectors.toList());
+    }
+
+    private class RecordingWriter implements DataSetWriter {
+        private final List<Object> values = new ArrayList<>();
+        private final long millisToWaitOnFirstRow;
+
+        RecordingWriter(long millisToWaitOnFirstRow) {
+            this.millisToWaitOnFirstRow = millisToWaitOnFirstRow;
+        }
+
+        @Override
+        public void writeRow(GeneratedObject row) {
+            if (values.isEmpty() && millisToWaitOnFirstRow > 0) {
+                try {
+                    Thread.sleep(millisToWaitOnFirstRow);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            values.add(row.getFormattedValue(field));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
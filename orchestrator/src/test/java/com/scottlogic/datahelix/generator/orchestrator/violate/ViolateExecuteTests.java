@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.scottlogic.datahelix.generator.orchestrator.violate;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.common.profile.StandardSpecificFieldType;
+import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
+import com.scottlogic.datahelix.generator.core.generation.DataGenerator;
+import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
+import com.scottlogic.datahelix.generator.core.profile.Profile;
+import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
+import com.scottlogic.datahelix.generator.orchestrator.violate.manifest.ManifestWriter;
+import com.scottlogic.datahelix.generator.orchestrator.violate.violator.ProfileViolator;
+import com.scottlogic.datahelix.generator.output.OutputPath;
+import com.scottlogic.datahelix.generator.output.outputtarget.OutputTargetFactory;
+import com.scottlogic.datahelix.generator.output.outputtarget.SingleDatasetOutputTarget;
+import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
+import com.scottlogic.datahelix.generator.profile.reader.ProfileReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ViolateExecuteTests {
+    private static final int VIOLATED_PROFILE_COUNT = 12;
+
+    private final Profile profile = new Profile(new Fields(Collections.emptyList()), Collections.emptyList());
+    private final List<ViolatedProfile> violatedProfiles = new ArrayList<>();
+    private final List<GeneratedObject> rows = new ArrayList<>();
+    private final List<DataSetWriter> writers = new ArrayList<>();
+    private OutputTargetFactory outputTargetFactory;
+    private DataGenerator dataGenerator;
+    private DataGeneratorMonitor monitor;
+    private ProfileViolator profileViolator;
+    private ProfileReader profileReader;
+
+    @BeforeEach
+    void setup() throws IOException {
+        outputTargetFactory = mock(OutputTargetFactory.class);
+        dataGenerator = mock(DataGenerator.class);
+        monitor = mock(DataGeneratorMonitor.class);
+        profileViolator = mock(ProfileViolator.class);
+        profileReader = mock(ProfileReader.class);
+
+        violateProfiles(profile.getFields());
+
+        when(profileReader.read()).thenReturn(profile);
+        when(profileViolator.violate(profile)).thenReturn(violatedProfiles);
+    }
+
+    private void violateProfiles(Fields violatedFields) throws IOException {
+        violatedProfiles.clear();
+        rows.clear();
+        writers.clear();
+
+        for (int i = 1; i <= VIOLATED_PROFILE_COUNT; i++) {
+            Constraint violatedConstraint = mock(Constraint.class);
+            when(violatedConstraint.toString()).thenReturn("violated rule " + i);
+            ViolatedProfile violatedProfile = new ViolatedProfile(
+                violatedConstraint,
+                violatedFields,
+                Collections.emptyList(),
+                "violated profile " + i);
+            GeneratedObject row = mock(GeneratedObject.class);
+            SingleDatasetOutputTarget outputTarget = mock(SingleDatasetOutputTarget.class);
+            DataSetWriter writer = mock(DataSetWriter.class);
+
+            when(dataGenerator.generateData(violatedProfile)).thenAnswer(invocation -> Stream.of(row));
+            when(outputTargetFactory.create(String.format("%02d", i))).thenReturn(outputTarget);
+            when(outputTarget.openWriter(profile.getFields())).thenReturn(writer);
+
+            violatedProfiles.add(violatedProfile);
+            rows.add(row);
+            writers.add(writer);
+        }
+    }
+
+    @Test
+    void execute_withViolationThreads_writesEachViolatedProfileToTheFileNamedInTheManifest(@TempDir Path outputDirectory) throws IOException {
+        //Act
+        violateExecute(outputDirectory, 4).execute();
+
+        //Assert
+        for (int i = 0; i < VIOLATED_PROFILE_COUNT; i++) {
+            verify(writers.get(i)).writeRow(rows.get(i));
+            verify(writers.get(i)).close();
+        }
+    }
+
+    @Test
+    void execute_withViolationThreads_writesTheSameManifestAsASerialRun(@TempDir Path outputDirectory) throws IOException {
+        //Arrange
+        Path serialDirectory = Files.createDirectory(outputDirectory.resolve("serial"));
+        Path parallelDirectory = Files.createDirectory(outputDirectory.resolve("parallel"));
+
+        //Act
+        violateExecute(serialDirectory, 1).execute();
+        violateExecute(parallelDirectory, 4).execute();
+
+        //Assert
+        assertEquals(
+            new String(Files.readAllBytes(serialDirectory.resolve("manifest.json"))),
+            new String(Files.readAllBytes(parallelDirectory.resolve("manifest.json"))));
+    }
+
+    @Test
+    void execute_withViolationThreads_whenADatasetFails_throwsItsException(@TempDir Path outputDirectory) {
+        //Arrange
+        IllegalStateException failure = new IllegalStateException("generation failed");
+        when(dataGenerator.generateData(violatedProfiles.get(5))).thenThrow(failure);
+
+        //Act
+        IllegalStateException thrown = assertThrows(
+            IllegalStateException.class,
+            () -> violateExecute(outputDirectory, 4).execute());
+
+        //Assert
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void execute_withViolationThreads_endsGenerationOnceEveryDatasetIsWritten(@TempDir Path outputDirectory) throws IOException {
+        //Act
+        violateExecute(outputDirectory, 4).execute();
+
+        //Assert
+        verify(monitor, times(1)).endGeneration();
+    }
+
+    @Test
+    void execute_serially_endsGenerationOnceEveryDatasetIsWritten(@TempDir Path outputDirectory) throws IOException {
+        //Act
+        violateExecute(outputDirectory, 1).execute();
+
+        //Assert
+        verify(monitor, times(1)).endGeneration();
+    }
+
+    @Test
+    void execute_withViolationThreadsAndRandomUniqueFields_generatesEveryDatasetOnTheCallingThread(@TempDir Path outputDirectory) throws IOException {
+        //Arrange
+        Field uniqueField = new Field(
+            "id", StandardSpecificFieldType.INTEGER.toSpecificFieldType(), true, null, false, false, null);
+        violateProfiles(new Fields(Collections.singletonList(uniqueField)));
+        Set<Thread> generatingThreads = ConcurrentHashMap.newKeySet();
+        for (ViolatedProfile violatedProfile : violatedProfiles) {
+            when(dataGenerator.generateData(violatedProfile)).thenAnswer(invocation -> {
+                generatingThreads.add(Thread.currentThread());
+                return Stream.empty();
+            });
+        }
+
+        //Act
+        violateExecute(outputDirectory, 4, DataGenerationType.RANDOM).execute();
+
+        //Assert
+        assertEquals(Collections.singleton(Thread.currentThread()), generatingThreads);
+    }
+
+    private ViolateExecute violateExecute(Path outputDirectory, int violationThreads) {
+        return violateExecute(outputDirectory, violationThreads, DataGenerationType.FULL_SEQUENTIAL);
+    }
+
+    private ViolateExecute violateExecute(
+        Path outputDirectory,
+        int violationThreads,
+        DataGenerationType generationType) {
+        return new ViolateExecute(
+            outputTargetFactory,
+            profileViolator,
+            dataGenerator,
+            monitor,
+            mock(ViolateOutputValidator.class),
+            new ManifestWriter(new OutputPath(outputDirectory)),
+            profileReader,
+            generationType,
+            violationThreads);
+    }
+}
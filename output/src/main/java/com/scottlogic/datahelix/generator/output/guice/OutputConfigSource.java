@@ -24,4 +24,5 @@ public interface OutputConfigSource {
     boolean overwriteOutputFiles();
     boolean useStdOut();
     boolean useNdJson();
+    int getOutputThreads();
 }
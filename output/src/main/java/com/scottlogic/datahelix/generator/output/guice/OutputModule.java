@@ -45,5 +45,9 @@ public class OutputModule extends AbstractModule {
         bind(boolean.class)
             .annotatedWith(Names.named("config:useNdJson"))
             .toInstance(outputConfigSource.useNdJson());
+
+        bind(int.class)
+            .annotatedWith(Names.named("config:outputThreads"))
+            .toInstance(outputConfigSource.getOutputThreads());
     }
 }
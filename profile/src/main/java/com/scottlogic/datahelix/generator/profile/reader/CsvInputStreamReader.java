@@ -28,6 +28,7 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public final class CsvInputStreamReader {
@@ -36,54 +37,102 @@ public final class CsvInputStreamReader {
     }
 
     public static DistributedList<String> retrieveLines(InputStream stream) {
-        List<CSVRecord> records = parse(stream);
-        return new DistributedList<>(records.stream()
-            .map(CsvInputStreamReader::createWeightedElementFromRecord)
-            .collect(Collectors.toList()));
+        List<WeightedElement<String>> elements = readElements(stream, element -> element, new ArrayList<>());
+        return new DistributedList<>(elements);
+    }
+
+    /**
+     * Read the lines of a set file, dropping any line that repeats both the element and the weight of an earlier one
+     */
+    public static DistributedList<Object> retrieveDistinctLines(InputStream stream) {
+        Set<WeightedElement<Object>> elements = readElements(stream, element -> element, new LinkedHashSet<>());
+        return new DistributedList<>(new ArrayList<>(elements));
     }
 
     public static DistributedList<String> retrieveLines(InputStream stream, String key) {
-        List<CSVRecord> records = parse(stream);
+        return retrieveLines(retrieveColumns(stream), key);
+    }
+
+    /**
+     * Read every column of a map file, keyed by its header, so that each of them can be retrieved without parsing the
+     * file again. Values which are repeated anywhere in the file share a single string.
+     */
+    public static Map<String, List<String>> retrieveColumns(InputStream stream) {
+        try (CSVParser parser = parse(stream)) {
+            Iterator<CSVRecord> records = parser.iterator();
+            if (!records.hasNext()) {
+                return Collections.emptyMap();
+            }
 
-        int index = getIndexForKey(records.get(0), key);
+            CSVRecord header = records.next();
+            List<ArrayList<String>> columns = new ArrayList<>(header.size());
+            for (int index = 0; index < header.size(); index++) {
+                columns.add(new ArrayList<>());
+            }
+
+            Map<String, String> values = new HashMap<>();
+            while (records.hasNext()) {
+                CSVRecord record = records.next();
+                for (int index = 0; index < columns.size(); index++) {
+                    columns.get(index).add(index < record.size()
+                        ? values.computeIfAbsent(record.get(index), value -> value)
+                        : null);
+                }
+            }
+
+            // the first column with a given header is the one that is read, as when searching the header for a key
+            Map<String, List<String>> columnsByKey = new HashMap<>();
+            for (int index = header.size() - 1; index >= 0; index--) {
+                ArrayList<String> column = columns.get(index);
+                column.trimToSize();
+                columnsByKey.put(header.get(index), Collections.unmodifiableList(column));
+            }
+            return columnsByKey;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        //Remove the header
-        records.remove(0);
+    public static DistributedList<String> retrieveLines(Map<String, List<String>> columns, String key) {
+        List<String> column = columns.get(key);
+        if (column == null) {
+            throw new ValidationException("unable to find data for key " + key);
+        }
+        if (column.contains(null)) {
+            throw new ValidationException("unable to find data for key " + key + " in every row");
+        }
 
-        return new DistributedList<>(records.stream()
-            .map(record -> record.get(index))
-            .map(record -> createWeightedElement(record, Optional.empty()))
+        return new DistributedList<>(column.stream()
+            .map(WeightedElement::withDefaultWeight)
             .collect(Collectors.toList()));
     }
 
-    private static int getIndexForKey(CSVRecord header, String key) {
-        int index = 0;
-        for (String title : header) {
-            if (title.equals(key)) {
-                return index;
+    private static <T, C extends Collection<WeightedElement<T>>> C readElements(
+        InputStream stream,
+        Function<String, T> toElement,
+        C elements) {
+        try (CSVParser parser = parse(stream)) {
+            for (CSVRecord record : parser) {
+                elements.add(createWeightedElementFromRecord(record, toElement));
             }
-            index++;
+            return elements;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        throw new ValidationException("unable to find data for key " + key);
     }
 
-    private static WeightedElement<String> createWeightedElementFromRecord(CSVRecord record) {
-        return createWeightedElement(record.get(0),
+    private static <T> WeightedElement<T> createWeightedElementFromRecord(CSVRecord record, Function<String, T> toElement) {
+        return createWeightedElement(toElement.apply(record.get(0)),
             record.size() == 1 ? Optional.empty() : Optional.of(Double.parseDouble(record.get(1))));
     }
 
 
-    private static WeightedElement<String> createWeightedElement(String element, Optional<Double> weight) {
+    private static <T> WeightedElement<T> createWeightedElement(T element, Optional<Double> weight) {
         return weight.map(integer -> new WeightedElement<>(element, integer))
             .orElseGet(() -> WeightedElement.withDefaultWeight(element));
     }
 
-    private static List<CSVRecord> parse(InputStream stream) {
-        try {
-            CSVParser parser = CSVParser.parse(stream, Charset.defaultCharset(), CSVFormat.DEFAULT);
-            return parser.getRecords();
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+    private static CSVParser parse(InputStream stream) throws IOException {
+        return CSVParser.parse(stream, Charset.defaultCharset(), CSVFormat.DEFAULT);
     }
 }
@@ -19,13 +19,16 @@ import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import com.scottlogic.datahelix.generator.common.ValidationException;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
-import com.scottlogic.datahelix.generator.common.whitelist.WeightedElement;
 
 import java.io.*;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FileReader {
     private final String filePath;
+    // every column of a map file is kept from a single parse, so the file is only read once
+    private final Map<String, Map<String, List<String>>> mapFiles = new ConcurrentHashMap<>();
 
     @Inject
     public FileReader(@Named("config:filePath") String filePath) {
@@ -37,26 +40,21 @@ public class FileReader {
     public DistributedList<Object> setFromFile(String file) {
         InputStream streamFromPath = createStreamFromPath(filePath + file);
 
-        DistributedList<String> names = CsvInputStreamReader.retrieveLines(streamFromPath);
+        DistributedList<Object> names = CsvInputStreamReader.retrieveDistinctLines(streamFromPath);
         closeStream(streamFromPath);
 
-        return new DistributedList<>(
-            names.distributedList().stream()
-                .map(holder -> new WeightedElement<>((Object) holder.element(), holder.weight()))
-                .distinct()
-                .collect(Collectors.toList()));
+        return names;
     }
 
     public DistributedList<String> listFromMapFile(String file, String key) {
-        InputStream streamFromPath = createStreamFromPath(filePath + file);
-
-        DistributedList<String> names = CsvInputStreamReader.retrieveLines(streamFromPath, key);
-        closeStream(streamFromPath);
+        Map<String, List<String>> columns = mapFiles.computeIfAbsent(filePath + file, path -> {
+            InputStream streamFromPath = createStreamFromPath(path);
+            Map<String, List<String>> mapFile = CsvInputStreamReader.retrieveColumns(streamFromPath);
+            closeStream(streamFromPath);
+            return mapFile;
+        });
 
-        return new DistributedList<>(
-            names.distributedList().stream()
-                .map(holder -> new WeightedElement<>(holder.element(), holder.weight()))
-                .collect(Collectors.toList()));
+        return CsvInputStreamReader.retrieveLines(columns, key);
     }
 
     private static InputStream createStreamFromPath(String path) {
@@ -20,7 +20,12 @@ import com.scottlogic.datahelix.generator.common.whitelist.WeightedElement;
 import com.scottlogic.datahelix.generator.profile.reader.CsvInputStreamReader;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -50,6 +55,25 @@ class CsvInputStreamReaderTest {
         assertTrue(checkAllWeightsAreEquals(set));
     }
 
+    @Test
+    public void retrieveDistinctLines_withRepeatedLines_keepsFirstOfEachElementAndWeight() {
+        final InputStream is = new ByteArrayInputStream("a,1\nb,2\na,1\na,3\n".getBytes(Charset.defaultCharset()));
+
+        final DistributedList<Object> set = CsvInputStreamReader.retrieveDistinctLines(is);
+
+        assertEquals(Arrays.asList("a", "b", "a"), set.list());
+    }
+
+    @Test
+    public void retrieveColumns_readsEveryColumnOnce() {
+        final InputStream is = new ByteArrayInputStream("key,value\nx,1\ny,2\n".getBytes(Charset.defaultCharset()));
+
+        final Map<String, List<String>> columns = CsvInputStreamReader.retrieveColumns(is);
+
+        assertEquals(Arrays.asList("x", "y"), CsvInputStreamReader.retrieveLines(columns, "key").list());
+        assertEquals(Arrays.asList("1", "2"), CsvInputStreamReader.retrieveLines(columns, "value").list());
+    }
+
     private <T> boolean checkAllWeightsAreEquals(DistributedList<T> set) {
         return set.distributedList().stream()
             .map(WeightedElement::weight)